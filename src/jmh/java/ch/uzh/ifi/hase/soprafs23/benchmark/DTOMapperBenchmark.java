@@ -0,0 +1,152 @@
+package ch.uzh.ifi.hase.soprafs23.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GameSetting;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
+import ch.uzh.ifi.hase.soprafs23.entity.LobbySetting;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.Message;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+import ch.uzh.ifi.hase.soprafs23.entity.Template;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.fixture.StoredGames;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.game.GameGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.meme.MemeGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.mapper.game.GameMapper;
+import ch.uzh.ifi.hase.soprafs23.rest.mapper.lobby.LobbyMapper;
+import ch.uzh.ifi.hase.soprafs23.rest.mapper.meme.MemeMapper;
+
+/**
+ * Mapping games, lobbies and the memes of a round to the DTOs sent to the
+ * clients (see the DTOFactory of each mapper).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DTOMapperBenchmark {
+
+    @Param({ "4", "8", "16" })
+    public int players;
+
+    @Param({ "1", "5", "10" })
+    public int rounds;
+
+    private Game game;
+
+    private Lobby lobby;
+
+    private List<Meme> memes;
+
+    @Setup
+    public void setup() {
+        List<User> users = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            User user = new User();
+            user.setId(UUID.randomUUID().toString());
+            user.setName("player " + i);
+            users.add(user);
+        }
+
+        Template template = new Template();
+        template.setId("61579");
+        template.setImageUrl("https://i.imgflip.com/1bij.jpg");
+
+        GameSetting gameSetting = new GameSetting();
+        gameSetting.setMaxRounds(rounds);
+        gameSetting.setRoundDuration(60);
+        gameSetting.setRatingDuration(30);
+        gameSetting.setRoundResultDuration(20);
+        gameSetting.setTemplateSwapLimit(3);
+
+        game = new Game();
+        game.setId(UUID.randomUUID().toString());
+        game.setGameSetting(gameSetting);
+        game.setState(GameState.RATING);
+        game.setStartedAt(new Date());
+        game.setTemplates(new ArrayList<>(List.of(template)));
+        for (User user : users) {
+            game.addPlayer(user);
+        }
+        game.setRounds(new ArrayList<>(rounds));
+        for (int r = 1; r <= rounds; r++) {
+            Round round = new Round();
+            round.setRoundNumber(r);
+            round.setStartedAt(new Date());
+            round.setMemes(new ArrayList<>());
+            round.setRatings(new ArrayList<>());
+            game.addRound(round);
+        }
+        game.setCurrentRound(rounds);
+
+        memes = new ArrayList<>(players);
+        for (User user : users) {
+            Meme meme = StoredGames.newMeme();
+            meme.setId(UUID.randomUUID().toString());
+            meme.setTemplate(template);
+            meme.setUser(user);
+            game.getRound().addMeme(meme);
+            memes.add(meme);
+        }
+
+        List<Message> messages = new ArrayList<>();
+        for (User user : users) {
+            Message message = new Message();
+            message.setMessage("ready?");
+            message.setCreatedAt(LocalDateTime.now());
+            message.setUser(user);
+            messages.add(message);
+        }
+
+        lobby = new Lobby();
+        lobby.setCode("big-hearted-cat");
+        lobby.setName("benchmark");
+        lobby.setOwner(users.get(0));
+        lobby.setLobbySetting(new LobbySetting(true, players, rounds, 3, 1, 1, 60, 30));
+        lobby.setPlayers(users);
+        lobby.setKickedPlayers(new ArrayList<>());
+        lobby.setMessages(messages);
+    }
+
+    @Benchmark
+    public GameGetDTO convertGame() {
+        return GameMapper.INSTANCE.convertEntityToGameGetDTO(game);
+    }
+
+    @Benchmark
+    public LobbyGetDTO convertLobby() {
+        return LobbyMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby);
+    }
+
+    @Benchmark
+    public List<MemeGetDTO> convertMemes() {
+        List<MemeGetDTO> memeGetDTOs = new ArrayList<>(memes.size());
+        for (Meme meme : memes) {
+            memeGetDTOs.add(MemeMapper.INSTANCE.convertEntityToMemeGetDTO(meme));
+        }
+        return memeGetDTOs;
+    }
+}
@@ -0,0 +1,120 @@
+package ch.uzh.ifi.hase.soprafs23.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ch.uzh.ifi.hase.soprafs23.Application;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Template;
+import ch.uzh.ifi.hase.soprafs23.fixture.StoredGames;
+import ch.uzh.ifi.hase.soprafs23.job.GamePersistenceJob;
+import ch.uzh.ifi.hase.soprafs23.service.GameService;
+import ch.uzh.ifi.hase.soprafs23.service.GameStateStore;
+
+/**
+ * Game Fixture
+ * Runs the application (by default against the in-memory H2 database) and
+ * stores games of a given size. The games are not scheduled, so they stay in
+ * the phase they were created in while a benchmark runs.
+ */
+public class GameFixture implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private final GameService gameService;
+
+    private final GameStateStore gameStateStore;
+
+    private final GamePersistenceJob gamePersistenceJob;
+
+    private final StoredGames storedGames;
+
+    private GameFixture(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.gameService = context.getBean(GameService.class);
+        this.gameStateStore = context.getBean(GameStateStore.class);
+        this.gamePersistenceJob = context.getBean(GamePersistenceJob.class);
+        this.storedGames = new StoredGames(context);
+    }
+
+    /**
+     * Starts the application without network access
+     *
+     * @param properties overriding the application properties ("key=value")
+     * @return
+     */
+    public static GameFixture start(String... properties) {
+        // ! passed as arguments, default properties would be overridden by application.properties
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                // * tokens only live as long as the fixture
+                "--jwt.secret=" + UUID.randomUUID() + UUID.randomUUID(),
+                // ! the bundled templates, a benchmark must not depend on imgflip
+                "--memeapi.providers=snapshot"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .run(args.toArray(new String[0]));
+        return new GameFixture(context);
+    }
+
+    public GameService getGameService() {
+        return gameService;
+    }
+
+    public Template getTemplate() {
+        return storedGames.getTemplate();
+    }
+
+    /**
+     * Stores a game and loads it into memory, see
+     * {@link StoredGames#storeGame(java.util.List, int, GameState)}
+     *
+     * @param players number of players
+     * @param rounds  number of rounds, including the current one
+     * @param state   CREATION or RATING
+     * @return id of the game
+     */
+    public String createGame(int players, int rounds, GameState state) {
+        String gameId = storeGame(players, rounds, state);
+
+        // * not in memory yet -> loaded like after a restart
+        gameService.getGame(gameId);
+        return gameId;
+    }
+
+    /**
+     * Stores a game like {@link #createGame(int, int, GameState)}, but does not
+     * load it into memory
+     *
+     * @param players number of players
+     * @param rounds  number of rounds, including the current one
+     * @param state   phase of the current round
+     * @return id of the game
+     */
+    public String storeGame(int players, int rounds, GameState state) {
+        return storedGames.storeGame(players, rounds, state);
+    }
+
+    /**
+     * Removes a game from memory and the database
+     *
+     * @param gameId
+     */
+    public void deleteGame(String gameId) {
+        gameStateStore.remove(gameId);
+        gamePersistenceJob.deleteGame(gameId);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
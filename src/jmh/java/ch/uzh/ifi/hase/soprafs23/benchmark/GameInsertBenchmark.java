@@ -0,0 +1,92 @@
+package ch.uzh.ifi.hase.soprafs23.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+
+/**
+ * Inserting a complete game in one transaction: its players, rounds, memes,
+ * text boxes and ratings.
+ * A batch size of 1 sends every row as its own statement, compare it to the
+ * configured batch size for the gain of JDBC batching. Divide by the number
+ * of rows for the time of one insert.
+ *
+ * The in-memory database hardly gains from batching, its statements are as
+ * cheap as Hibernate's own work per row. Profile "h2file" (or "postgres")
+ * shows the gain of a database that writes to disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50)
+@Measurement(iterations = 200)
+@Fork(1)
+public class GameInsertBenchmark {
+
+    @Param({ "1", "50" })
+    public int batchSize;
+
+    @Param({ "default", "h2file" })
+    public String profile;
+
+    @Param({ "4", "8", "16" })
+    public int players;
+
+    @Param({ "1", "5", "10" })
+    public int rounds;
+
+    private GameFixture fixture;
+
+    private String gameId;
+
+    private Path dbDirectory;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        // ! never the database of the developer (h2file defaults to ./data/meme-it)
+        dbDirectory = Files.createTempDirectory("meme-it-benchmark");
+        fixture = GameFixture.start("spring.profiles.active=" + profile,
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "DB_FILE=" + dbDirectory.resolve("meme-it"));
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteGame() {
+        fixture.deleteGame(gameId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        fixture.close();
+        try (Stream<Path> paths = Files.walk(dbDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void storeGame() {
+        gameId = fixture.storeGame(players, rounds, GameState.ROUND_RESULTS);
+    }
+}
@@ -0,0 +1,84 @@
+package ch.uzh.ifi.hase.soprafs23.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GamePlayer;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.fixture.StoredGames;
+import ch.uzh.ifi.hase.soprafs23.service.GameService;
+import ch.uzh.ifi.hase.soprafs23.service.Scoreboard.MemeScore;
+import ch.uzh.ifi.hase.soprafs23.service.Scoreboard.PlayerScore;
+
+/**
+ * Reading a running game whose current round is rated completely.
+ * The reads do not change the game, so they are measured in a steady state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameReadBenchmark {
+
+    @Param({ "4", "8", "16" })
+    public int players;
+
+    @Param({ "1", "5", "10" })
+    public int rounds;
+
+    private GameFixture fixture;
+
+    private GameService gameService;
+
+    private String gameId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixture = GameFixture.start();
+        gameService = fixture.getGameService();
+
+        gameId = fixture.createGame(players, rounds, GameState.RATING);
+        for (GamePlayer player : gameService.getGame(gameId).getPlayers()) {
+            for (Meme meme : gameService.getMemes(gameId)) {
+                gameService.createRating(gameId, meme.getId(), StoredGames.newRating(1), player.getUser());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<Meme> getMemes() {
+        return gameService.getMemes(gameId);
+    }
+
+    @Benchmark
+    public List<MemeScore> getRoundResults() {
+        return gameService.getRoundResults(gameId);
+    }
+
+    @Benchmark
+    public List<PlayerScore> getGameResults() {
+        return gameService.getGameResults(gameId);
+    }
+}
@@ -0,0 +1,128 @@
+package ch.uzh.ifi.hase.soprafs23.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GamePlayer;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.fixture.StoredGames;
+import ch.uzh.ifi.hase.soprafs23.service.GameService;
+
+/**
+ * Submitting the memes and ratings of a round.
+ * Every submission changes the game, so a single invocation plays a whole
+ * phase of a fresh game: all players submit a meme, respectively all players
+ * rate every meme. Divide by the number of submissions for the time of one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50)
+@Measurement(iterations = 200)
+@Fork(1)
+public class GameSubmissionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        @Param({ "4", "8", "16" })
+        public int players;
+
+        @Param({ "1", "5", "10" })
+        public int rounds;
+
+        GameFixture fixture;
+
+        GameService gameService;
+
+        @Setup(Level.Trial)
+        public void start() {
+            fixture = GameFixture.start();
+            gameService = fixture.getGameService();
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class CreationPhase {
+
+        String gameId;
+
+        String templateId;
+
+        List<User> players;
+
+        @Setup(Level.Iteration)
+        public void createGame(Application application) {
+            gameId = application.fixture.createGame(application.players, application.rounds, GameState.CREATION);
+            templateId = application.fixture.getTemplate().getId();
+            players = application.gameService.getGame(gameId).getPlayers().stream().map(GamePlayer::getUser)
+                    .collect(Collectors.toList());
+        }
+
+        @TearDown(Level.Iteration)
+        public void deleteGame(Application application) {
+            application.fixture.deleteGame(gameId);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class RatingPhase {
+
+        String gameId;
+
+        List<User> players;
+
+        List<String> memeIds;
+
+        @Setup(Level.Iteration)
+        public void createGame(Application application) {
+            gameId = application.fixture.createGame(application.players, application.rounds, GameState.RATING);
+            players = application.gameService.getGame(gameId).getPlayers().stream().map(GamePlayer::getUser)
+                    .collect(Collectors.toList());
+            memeIds = application.gameService.getMemes(gameId).stream().map(Meme::getId)
+                    .collect(Collectors.toList());
+        }
+
+        @TearDown(Level.Iteration)
+        public void deleteGame(Application application) {
+            application.fixture.deleteGame(gameId);
+        }
+    }
+
+    @Benchmark
+    public void createMeme(Application application, CreationPhase phase) {
+        for (User player : phase.players) {
+            application.gameService.createMeme(phase.gameId, phase.templateId, StoredGames.newMeme(), player);
+        }
+    }
+
+    @Benchmark
+    public void createRating(Application application, RatingPhase phase) {
+        for (User player : phase.players) {
+            for (String memeId : phase.memeIds) {
+                application.gameService.createRating(phase.gameId, memeId, StoredGames.newRating(1), player);
+            }
+        }
+    }
+}
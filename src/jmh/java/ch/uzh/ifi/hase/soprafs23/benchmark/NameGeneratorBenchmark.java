@@ -0,0 +1,54 @@
+package ch.uzh.ifi.hase.soprafs23.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.uzh.ifi.hase.soprafs23.utility.LobbyCodeAllocator;
+import ch.uzh.ifi.hase.soprafs23.utility.NameGenerator;
+
+/**
+ * Generating readable lobby codes, as random ids and as allocated codes which
+ * are not in use (see LobbyService).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NameGeneratorBenchmark {
+
+    private NameGenerator nameGenerator;
+
+    private LobbyCodeAllocator lobbyCodeAllocator;
+
+    @Setup
+    public void setup() {
+        nameGenerator = new NameGenerator();
+        lobbyCodeAllocator = new LobbyCodeAllocator(nameGenerator.getAdjectives(), nameGenerator.getNouns(), 0.5,
+                new Random());
+    }
+
+    @Benchmark
+    public String getReadableId() {
+        return nameGenerator.getReadableId();
+    }
+
+    @Benchmark
+    public String allocateAndFree() {
+        String code = lobbyCodeAllocator.allocate();
+        lobbyCodeAllocator.free(code);
+        return code;
+    }
+}
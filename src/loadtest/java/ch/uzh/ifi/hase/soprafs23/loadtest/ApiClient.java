@@ -0,0 +1,116 @@
+package ch.uzh.ifi.hase.soprafs23.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Api Client
+ * Sends the requests of the simulated players and records their latency per
+ * endpoint. Every request is timed from sending until the body was read.
+ */
+public class ApiClient {
+
+    private final HttpClient httpClient;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String baseUrl;
+
+    private final Stats stats;
+
+    public ApiClient(String baseUrl, Stats stats) {
+        // ! the app speaks HTTP/1.1 only, the h2c upgrade would be tried on every request
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    /**
+     * Sends a request and returns the JSON body
+     *
+     * @param method   HTTP method
+     * @param endpoint path with placeholders, the key of the latency samples
+     * @param token    bearer token, null if not authenticated
+     * @param body     serialized to JSON, null if there is none
+     * @param params   values of the placeholders, in order
+     * @return the body, null if it is empty
+     * @throws IOException if the request failed or was not successful
+     */
+    public JsonNode send(String method, String endpoint, String token, Object body, String... params)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path(endpoint, params)))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? BodyPublishers.noBody()
+                        : BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+
+        String key = method + " " + endpoint;
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request.build(), BodyHandlers.ofString());
+        } catch (IOException e) {
+            stats.error(key);
+            throw e;
+        }
+        stats.latency(key, (System.nanoTime() - start) / 1_000_000);
+
+        if (response.statusCode() >= 300) {
+            stats.error(key);
+            throw new IOException(key + " answered " + response.statusCode() + ": " + response.body());
+        }
+        return response.body().isEmpty() ? null : objectMapper.readTree(response.body());
+    }
+
+    /**
+     * Opens a server-sent event stream, the lines are read as they arrive
+     *
+     * @param endpoint
+     * @param token
+     * @param params
+     * @return
+     */
+    public Stream<String> stream(String endpoint, String token, String... params)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path(endpoint, params)))
+                .header("Accept", "text/event-stream")
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        HttpResponse<Stream<String>> response = httpClient.send(request, BodyHandlers.ofLines());
+        if (response.statusCode() >= 300) {
+            response.body().close();
+            throw new IOException("GET " + endpoint + " answered " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    private static String path(String endpoint, String... params) {
+        String path = endpoint;
+        for (String param : params) {
+            path = path.replaceFirst("\\{[^}]+\\}", Matcher.quoteReplacement(param));
+        }
+        return path;
+    }
+}
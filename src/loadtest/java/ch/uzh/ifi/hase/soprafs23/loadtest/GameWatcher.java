@@ -0,0 +1,130 @@
+package ch.uzh.ifi.hase.soprafs23.loadtest;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.StdDateFormat;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+
+/**
+ * Game Watcher
+ * Follows a game through its stream (GET /games/{gameId}/stream) and notes
+ * when each phase of each round was first seen, like a client does.
+ */
+public class GameWatcher implements AutoCloseable {
+
+    private final ObjectMapper objectMapper;
+
+    private final Stream<String> lines;
+
+    private final Thread reader;
+
+    /** "STATE round" -> epoch millis the phase was first seen */
+    private final Map<String, Long> seen = new HashMap<>();
+
+    /** round number -> epoch millis the round started, from the server */
+    private final Map<Integer, Long> roundStartedAt = new HashMap<>();
+
+    private boolean closed = false;
+
+    public GameWatcher(ObjectMapper objectMapper, Stream<String> lines, String name) {
+        this.objectMapper = objectMapper;
+        this.lines = lines;
+        this.reader = new Thread(this::read, name);
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * Waits until the game reached a phase of a round
+     *
+     * @param state
+     * @param round
+     * @param timeout millis
+     * @return epoch millis the phase was first seen
+     * @throws TimeoutException if the phase was not reached in time
+     */
+    public synchronized long await(GameState state, int round, long timeout)
+            throws InterruptedException, TimeoutException {
+        long deadline = System.currentTimeMillis() + timeout;
+        Long time;
+        while ((time = seen.get(key(state, round))) == null) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (closed || remaining <= 0) {
+                throw new TimeoutException(state + " of round " + round + " not reached");
+            }
+            wait(remaining);
+        }
+        return time;
+    }
+
+    /**
+     * @param round
+     * @return epoch millis the round started, as set by the server
+     */
+    public synchronized long getRoundStartedAt(int round) {
+        return roundStartedAt.getOrDefault(round, 0L);
+    }
+
+    private void read() {
+        StringBuilder data = new StringBuilder();
+        try {
+            lines.forEach(line -> {
+                if (line.startsWith("data:")) {
+                    data.append(line.substring(5));
+                } else if (line.isEmpty() && data.length() > 0) {
+                    onGame(data.toString());
+                    data.setLength(0);
+                }
+            });
+        } catch (RuntimeException e) {
+            // stream closed
+        } finally {
+            synchronized (this) {
+                closed = true;
+                notifyAll();
+            }
+        }
+    }
+
+    private void onGame(String json) {
+        long now = System.currentTimeMillis();
+        try {
+            JsonNode game = objectMapper.readTree(json);
+            GameState state = GameState.valueOf(game.get("gameState").asText());
+            int round = game.get("currentRound").asInt();
+            long startedAt = parseDate(game.get("roundStartedAt"));
+
+            synchronized (this) {
+                seen.putIfAbsent(key(state, round), now);
+                roundStartedAt.putIfAbsent(round, startedAt);
+                notifyAll();
+            }
+        } catch (IOException | ParseException | RuntimeException e) {
+            System.err.println("Unreadable game event: " + json);
+        }
+    }
+
+    private static long parseDate(JsonNode date) throws ParseException {
+        if (date == null || date.isNull()) {
+            return 0;
+        }
+        return date.isNumber() ? date.asLong() : new StdDateFormat().parse(date.asText()).getTime();
+    }
+
+    private static String key(GameState state, int round) {
+        return state + " " + round;
+    }
+
+    @Override
+    public void close() {
+        lines.close();
+    }
+}
@@ -0,0 +1,111 @@
+package ch.uzh.ifi.hase.soprafs23.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ch.uzh.ifi.hase.soprafs23.Application;
+
+/**
+ * Load Simulation
+ * Plays full games with concurrent simulated lobbies against the REST api and
+ * reports the latency per endpoint and the lag of the phase transitions.
+ *
+ * Options (all optional):
+ * --url http://localhost:8080 app to test, ignored with --start
+ * --start starts the app in this process (H2, bundled templates)
+ * --lobbies 10 lobbies playing at the same time
+ * --players 4 players per lobby
+ * --rounds 2 rounds per game
+ * --round-duration 30 seconds to create a meme
+ * --rating-duration 30 seconds to rate
+ * --ramp-up 5 seconds over which the lobbies are started
+ */
+public class LoadSimulation {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int lobbies = Integer.parseInt(options.getOrDefault("lobbies", "10"));
+        int players = Integer.parseInt(options.getOrDefault("players", "4"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "2"));
+        int roundDuration = Integer.parseInt(options.getOrDefault("round-duration", "30"));
+        int ratingDuration = Integer.parseInt(options.getOrDefault("rating-duration", "30"));
+        long rampUp = Long.parseLong(options.getOrDefault("ramp-up", "5")) * 1000;
+
+        ConfigurableApplicationContext context = null;
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        if (options.containsKey("start")) {
+            // ! passed as arguments, default properties would be overridden by application.properties
+            context = new SpringApplicationBuilder(Application.class)
+                    .run("--server.port=0", "--spring.main.banner-mode=off", "--logging.level.root=WARN",
+                            "--memeapi.providers=snapshot",
+                            // * tokens only live as long as the simulation
+                            "--jwt.secret=" + UUID.randomUUID() + UUID.randomUUID());
+            url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        System.out.printf("Simulating %d lobbies of %d players, %d rounds against %s%n", lobbies, players, rounds,
+                url);
+        Stats stats = new Stats();
+        ApiClient apiClient = new ApiClient(url, stats);
+
+        int failed = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(lobbies);
+        try {
+            List<Future<Boolean>> games = new ArrayList<>(lobbies);
+            for (int i = 0; i < lobbies; i++) {
+                games.add(executor.submit(
+                        new SimulatedLobby(apiClient, stats, i, players, rounds, roundDuration, ratingDuration)));
+                Thread.sleep(rampUp / lobbies);
+            }
+            for (Future<Boolean> game : games) {
+                try {
+                    game.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.err.println("Lobby failed: " + e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        stats.print(System.out);
+        System.out.printf("%nGames played: %d of %d, failed requests: %d%n", lobbies - failed, lobbies,
+                stats.errorCount());
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    /**
+     * "--key value" pairs, a key without value is a flag
+     */
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+            String key = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(key, args[++i]);
+            } else {
+                options.put(key, "true");
+            }
+        }
+        return options;
+    }
+}
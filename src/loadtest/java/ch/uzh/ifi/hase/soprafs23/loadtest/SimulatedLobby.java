@@ -0,0 +1,150 @@
+package ch.uzh.ifi.hase.soprafs23.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+
+/**
+ * Simulated Lobby
+ * Plays one game from creating the users to the game results, the way the
+ * clients do: POST /users -> POST /lobbies -> join -> POST /games/{code} ->
+ * template -> meme -> rating -> results, every player in turn.
+ *
+ * Phases which end once everyone submitted are expected to change right after
+ * the last submission, the round results after their duration. The lag is the
+ * time until the change was seen on the game stream.
+ */
+public class SimulatedLobby implements Callable<Boolean> {
+
+    private final ApiClient apiClient;
+
+    private final Stats stats;
+
+    private final int index;
+
+    private final int players;
+
+    private final int rounds;
+
+    private final int roundDuration;
+
+    private final int ratingDuration;
+
+    public SimulatedLobby(ApiClient apiClient, Stats stats, int index, int players, int rounds, int roundDuration,
+            int ratingDuration) {
+        this.apiClient = apiClient;
+        this.stats = stats;
+        this.index = index;
+        this.players = players;
+        this.rounds = rounds;
+        this.roundDuration = roundDuration;
+        this.ratingDuration = ratingDuration;
+    }
+
+    /**
+     * @return true if the game was played to the end
+     */
+    @Override
+    public Boolean call() throws Exception {
+        // create the players, the first one owns the lobby
+        List<String> tokens = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            JsonNode user = apiClient.send("POST", "/users", null, Map.of("name", "lobby" + index + "-player" + i));
+            tokens.add(user.get("token").asText());
+        }
+        String owner = tokens.get(0);
+
+        Map<String, Object> lobbySettings = Map.of(
+                "name", "load " + index,
+                "isPublic", true,
+                "maxPlayers", players,
+                "maxRounds", rounds,
+                "memeChangeLimit", 1,
+                "superLikeLimit", 1,
+                "superDislikeLimit", 1,
+                "roundDuration", roundDuration,
+                "ratingDuration", ratingDuration);
+        String lobbyCode = apiClient.send("POST", "/lobbies", owner, lobbySettings).get("code").asText();
+        for (String token : tokens.subList(1, players)) {
+            apiClient.send("POST", "/lobbies/{lobbyCode}/players", token, null, lobbyCode);
+        }
+
+        JsonNode game = apiClient.send("POST", "/games/{lobbyCode}", owner, null, lobbyCode);
+        String gameId = game.get("id").asText();
+        long phasesDuration = (game.get("roundDuration").asLong() + game.get("votingDuration").asLong()
+                + game.get("roundResultDuration").asLong()) * 1000;
+        // ! no phase may take much longer than all of them together
+        long timeout = phasesDuration + 30_000;
+
+        try (GameWatcher watcher = new GameWatcher(apiClient.getObjectMapper(),
+                apiClient.stream("/games/{gameId}/stream", owner, gameId), "watch-" + lobbyCode)) {
+            for (String token : tokens) {
+                apiClient.send("GET", "/games/{gameId}", token, null, gameId);
+            }
+
+            for (int round = 1; round <= rounds; round++) {
+                watcher.await(GameState.CREATION, round, timeout);
+                long lastMeme = 0;
+                for (String token : tokens) {
+                    String templateId = apiClient.send("GET", "/games/{gameId}/template", token, null, gameId)
+                            .get("id").asText();
+                    apiClient.send("POST", "/games/{gameId}/meme/{templateId}", token, meme(), gameId, templateId);
+                    lastMeme = System.currentTimeMillis();
+                }
+
+                long rating = watcher.await(GameState.RATING, round, timeout);
+                stats.lag("CREATION -> RATING (all memes in)", rating - lastMeme);
+
+                // * everyone rates the meme of the next player
+                List<String> memeIds = new ArrayList<>(players);
+                for (String token : tokens) {
+                    JsonNode memes = apiClient.send("GET", "/games/{gameId}/meme", token, null, gameId);
+                    if (memeIds.isEmpty()) {
+                        memes.forEach(meme -> memeIds.add(meme.get("id").asText()));
+                    }
+                }
+                long lastRating = 0;
+                for (int i = 0; i < players; i++) {
+                    String memeId = memeIds.get((i + 1) % memeIds.size());
+                    apiClient.send("POST", "/games/{gameId}/rating/{memeId}", tokens.get(i),
+                            Map.of("rating", 1 + i % 5), gameId, memeId);
+                    lastRating = System.currentTimeMillis();
+                }
+
+                GameState results = round == rounds ? GameState.GAME_RESULTS : GameState.ROUND_RESULTS;
+                long resultsSeen = watcher.await(results, round, timeout);
+                stats.lag("RATING -> " + results + " (all ratings in)", resultsSeen - lastRating);
+
+                for (String token : tokens) {
+                    apiClient.send("GET", "/games/{gameId}/results/round", token, null, gameId);
+                }
+
+                if (round < rounds) {
+                    long nextRound = watcher.await(GameState.CREATION, round + 1, timeout);
+                    long expected = watcher.getRoundStartedAt(round) + phasesDuration;
+                    stats.lag("ROUND_RESULTS -> CREATION (timed)", nextRound - expected);
+                }
+            }
+
+            for (String token : tokens) {
+                apiClient.send("GET", "/games/{gameId}/results/game", token, null, gameId);
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Object> meme() {
+        return Map.of(
+                "color", "white",
+                "backgroundColor", "black",
+                "fontSize", 24,
+                "textBoxes", List.of(
+                        Map.of("text", "one does not simply", "xRate", 50, "yRate", 10),
+                        Map.of("text", "load test", "xRate", 50, "yRate", 90)));
+    }
+}
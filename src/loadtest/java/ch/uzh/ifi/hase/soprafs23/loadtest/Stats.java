@@ -0,0 +1,81 @@
+package ch.uzh.ifi.hase.soprafs23.loadtest;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stats
+ * Collects the samples of a simulation run: latency per endpoint and lag of
+ * the phase transitions, both in millis.
+ */
+public class Stats {
+
+    private final Map<String, List<Long>> latencies = new TreeMap<>();
+
+    private final Map<String, AtomicLong> errors = new TreeMap<>();
+
+    private final Map<String, List<Long>> lags = new TreeMap<>();
+
+    /**
+     * @param endpoint e.g. "POST /games/{gameId}/meme/{templateId}"
+     * @param millis
+     */
+    public synchronized void latency(String endpoint, long millis) {
+        latencies.computeIfAbsent(endpoint, key -> new ArrayList<>()).add(millis);
+    }
+
+    public synchronized void error(String endpoint) {
+        errors.computeIfAbsent(endpoint, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * @param transition e.g. "CREATION -> RATING"
+     * @param millis     time between the expected and the observed transition
+     */
+    public synchronized void lag(String transition, long millis) {
+        lags.computeIfAbsent(transition, key -> new ArrayList<>()).add(millis);
+    }
+
+    public synchronized long errorCount() {
+        return errors.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public synchronized void print(PrintStream out) {
+        out.println();
+        out.printf("%-45s %8s %8s %8s %8s %8s%n", "endpoint", "count", "errors", "p50 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, List<Long>> entry : latencies.entrySet()) {
+            List<Long> samples = sorted(entry.getValue());
+            AtomicLong errorCount = errors.get(entry.getKey());
+            out.printf("%-45s %8d %8d %8d %8d %8d%n", entry.getKey(), samples.size(),
+                    errorCount == null ? 0 : errorCount.get(), percentile(samples, 50), percentile(samples, 99),
+                    samples.get(samples.size() - 1));
+        }
+
+        out.println();
+        out.printf("%-45s %8s %8s %8s %8s%n", "phase transition", "count", "p50 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, List<Long>> entry : lags.entrySet()) {
+            List<Long> samples = sorted(entry.getValue());
+            out.printf("%-45s %8d %8d %8d %8d%n", entry.getKey(), samples.size(), percentile(samples, 50),
+                    percentile(samples, 99), samples.get(samples.size() - 1));
+        }
+    }
+
+    private static List<Long> sorted(List<Long> samples) {
+        List<Long> copy = new ArrayList<>(samples);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted samples
+     */
+    static long percentile(List<Long> sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+}
@@ -5,28 +5,34 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import ch.uzh.ifi.hase.soprafs23.entity.Game;
 import ch.uzh.ifi.hase.soprafs23.entity.Meme;
 import ch.uzh.ifi.hase.soprafs23.entity.Rating;
 import ch.uzh.ifi.hase.soprafs23.entity.Template;
 import ch.uzh.ifi.hase.soprafs23.entity.User;
-import ch.uzh.ifi.hase.soprafs23.job.GameJob;
+import ch.uzh.ifi.hase.soprafs23.job.GameScheduler;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.game.GameGetDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.meme.MemeGetDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.meme.MemePostDTO;
-import ch.uzh.ifi.hase.soprafs23.rest.dto.rating.RatingGetDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.rating.RatingPostDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.result.GameResultGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.result.RoundResultGetDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.template.TemplateGetDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.mapper.game.GameMapper;
 import ch.uzh.ifi.hase.soprafs23.rest.mapper.meme.MemeMapper;
 import ch.uzh.ifi.hase.soprafs23.rest.mapper.rating.RatingMapper;
+import ch.uzh.ifi.hase.soprafs23.rest.mapper.result.ResultMapper;
 import ch.uzh.ifi.hase.soprafs23.rest.mapper.template.TemplateMapper;
 import ch.uzh.ifi.hase.soprafs23.service.GameService;
+import ch.uzh.ifi.hase.soprafs23.service.Scoreboard.MemeScore;
+import ch.uzh.ifi.hase.soprafs23.service.Scoreboard.PlayerScore;
 
 /**
  * Game Controller
@@ -40,11 +46,11 @@ public class GameController {
 
     private final GameService gameService;
 
-    private final GameJob gameJob;
+    private final GameScheduler gameScheduler;
 
-    public GameController(GameService gameService, GameJob gameJob) {
+    public GameController(GameService gameService, GameScheduler gameScheduler) {
         this.gameService = gameService;
-        this.gameJob = gameJob;
+        this.gameScheduler = gameScheduler;
     }
 
     @PostMapping("/games/{lobbyCode}")
@@ -55,10 +61,9 @@ public class GameController {
         // create game
         Game game = gameService.createGame(lobbyCode);
 
-        // start game job
+        // schedule game job
         // * game job takes care of updating game state
-        Thread thread = new Thread(() -> gameJob.run(game.getId()));
-        thread.start();
+        gameScheduler.schedule(game.getId());
 
         return GameMapper.INSTANCE.convertEntityToGameGetDTO(game);
     }
@@ -87,6 +92,18 @@ public class GameController {
         return GameMapper.INSTANCE.convertEntityToGameGetDTO(game);
     }
 
+    /**
+     * Streams the game state (server-sent events) whenever it changes
+     * * replaces polling GET /games/{gameId}
+     * 
+     * @param gameId
+     * @return
+     */
+    @GetMapping(value = "/games/{gameId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGame(@PathVariable String gameId) {
+        return gameService.subscribe(gameId);
+    }
+
     /** Get a template. Should also be used for swapping memes */
     @GetMapping("/games/{gameId}/template")
     @ResponseStatus(HttpStatus.OK)
@@ -168,45 +185,43 @@ public class GameController {
     }
 
     /**
-     * Get all ratings in a round
+     * Get the memes of the current round with their score, best first
      * 
      * @param gameId
-     * @param memeId
      * @return
      */
     @GetMapping("/games/{gameId}/results/round")
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public List<RatingGetDTO> getRoundRatings(@PathVariable String gameId) {
+    public List<RoundResultGetDTO> getRoundRatings(@PathVariable String gameId) {
 
-        List<Rating> ratings = gameService.getRatingsFromRound(gameId);
+        List<MemeScore> memeScores = gameService.getRoundResults(gameId);
 
-        List<RatingGetDTO> ratingGetDTOs = new ArrayList<RatingGetDTO>();
-        for (Rating rating : ratings) {
-            ratingGetDTOs.add(RatingMapper.INSTANCE.convertEntityToRatingGetDTO(rating));
+        List<RoundResultGetDTO> roundResultGetDTOs = new ArrayList<RoundResultGetDTO>();
+        for (MemeScore memeScore : memeScores) {
+            roundResultGetDTOs.add(ResultMapper.INSTANCE.convertMemeScoreToRoundResultGetDTO(memeScore));
         }
-        return ratingGetDTOs;
+        return roundResultGetDTOs;
     }
 
     /**
-     * Get all ratings in a game
+     * Get the players with their score over all rounds, best first
      * 
      * @param gameId
-     * @param memeId
      * @return
      */
     @GetMapping("/games/{gameId}/results/game")
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public List<RatingGetDTO> getWinners(@PathVariable String gameId) {
+    public List<GameResultGetDTO> getWinners(@PathVariable String gameId) {
 
-        List<Rating> ratings = gameService.getAllRatings(gameId);
+        List<PlayerScore> playerScores = gameService.getGameResults(gameId);
 
-        List<RatingGetDTO> ratingGetDTOs = new ArrayList<RatingGetDTO>();
-        for (Rating rating : ratings) {
-            ratingGetDTOs.add(RatingMapper.INSTANCE.convertEntityToRatingGetDTO(rating));
+        List<GameResultGetDTO> gameResultGetDTOs = new ArrayList<GameResultGetDTO>();
+        for (PlayerScore playerScore : playerScores) {
+            gameResultGetDTOs.add(ResultMapper.INSTANCE.convertPlayerScoreToGameResultGetDTO(playerScore));
         }
 
-        return ratingGetDTOs;
+        return gameResultGetDTOs;
     }
 }
@@ -1,6 +1,7 @@
 package ch.uzh.ifi.hase.soprafs23.controller;
 
 import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyPostDTO;
+import ch.uzh.ifi.hase.soprafs23.service.LobbyBrowser;
 import ch.uzh.ifi.hase.soprafs23.service.LobbyService;
 import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs23.entity.User;
@@ -9,14 +10,14 @@ import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserPostDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.mapper.lobby.LobbyMapper;
 import ch.uzh.ifi.hase.soprafs23.rest.mapper.user.UserMapper;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyGetDTO;
-
-import java.util.ArrayList;
-import java.util.List;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyPageGetDTO;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * Lobby Controller
@@ -30,25 +31,21 @@ public class LobbyController {
 
     private final LobbyService lobbyService;
 
-    public LobbyController(LobbyService lobbyService) {
+    private final LobbyBrowser lobbyBrowser;
+
+    public LobbyController(LobbyService lobbyService, LobbyBrowser lobbyBrowser) {
         this.lobbyService = lobbyService;
+        this.lobbyBrowser = lobbyBrowser;
     }
 
+    // Lists the public lobbies which can be joined
+    // * the next page is requested with the nextCursor of the previous page
     @GetMapping("/lobbies")
     @ResponseStatus(HttpStatus.OK)
     @ResponseBody
-    public List<LobbyGetDTO> getLobbies() {
-        // get all lobbies
-        List<Lobby> createdLobby = lobbyService.getLobbies();
-
-        System.out.println(createdLobby);
-        // convert internal representation of lobby back to API
-        List<LobbyGetDTO> getDTOs = new ArrayList<LobbyGetDTO>();
-        for (Lobby lobby : createdLobby) {
-            getDTOs.add(LobbyMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby));
-        }
-
-        return getDTOs;
+    public LobbyPageGetDTO getLobbies(@RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "" + LobbyBrowser.DEFAULT_PAGE_SIZE) int size) {
+        return lobbyBrowser.getPublicLobbies(cursor, size);
     }
 
     @PostMapping("/lobbies")
@@ -101,6 +98,13 @@ public class LobbyController {
         return LobbyMapper.INSTANCE.convertEntityToLobbyGetDTO(getLobby);
     }
 
+    // Streams the lobby (server-sent events) whenever it changes
+    // * replaces polling GET /lobbies/{lobbyCode}
+    @GetMapping(value = "/lobbies/{lobbyCode}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLobby(@PathVariable String lobbyCode) {
+        return lobbyService.subscribe(lobbyCode);
+    }
+
     // If the user is not in a lobby, they can join a lobby by entering the lobby
     // code
     // If the code provided is incorrect an error message gets displayed
@@ -1,12 +1,16 @@
 package ch.uzh.ifi.hase.soprafs23.controller;
 
+import ch.uzh.ifi.hase.soprafs23.service.JwtTokenService;
 import ch.uzh.ifi.hase.soprafs23.service.UserService;
 import ch.uzh.ifi.hase.soprafs23.entity.User;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserPostDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.mapper.user.UserMapper;
-import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.user.StreamTokenGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserAuthGetDTO;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -14,24 +18,46 @@ public class UserController {
 
     private final UserService userService;
 
-    UserController(UserService userService) {
+    private final JwtTokenService jwtTokenService;
+
+    UserController(UserService userService, JwtTokenService jwtTokenService) {
         this.userService = userService;
+        this.jwtTokenService = jwtTokenService;
     }
 
     @PostMapping("/users")
     @ResponseStatus(HttpStatus.CREATED)
     @ResponseBody
-    public UserGetDTO createLobby(@RequestBody UserPostDTO userPostDTO) {
+    public UserAuthGetDTO createLobby(@RequestBody UserPostDTO userPostDTO) {
         // convert API user to internal representation
         User userInput = UserMapper.INSTANCE.convertUserPostDTOtoEntity(userPostDTO);
 
         // create lobby
         User createdUser = userService.createUser(userInput);
 
-        // String token = jwtTokenService.generateToken(createdUser);
-
         // convert internal representation of lobby back to API
-        return UserMapper.INSTANCE.convertEntityToUserGetDTO(createdUser);
+        UserAuthGetDTO userAuthGetDTO = UserMapper.INSTANCE.convertEntityToUserAuthGetDTO(createdUser);
+        userAuthGetDTO.setToken(jwtTokenService.generateToken(createdUser));
+        return userAuthGetDTO;
+    }
+
+    /**
+     * Creates a short-lived token to open a stream with EventSource, which
+     * can not send the Authorization header: /games/{gameId}/stream?token={token}
+     * or /lobbies/{lobbyCode}/stream?token={token}
+     *
+     * @return
+     */
+    @PostMapping("/users/stream-token")
+    @ResponseStatus(HttpStatus.CREATED)
+    @ResponseBody
+    public StreamTokenGetDTO createStreamToken() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User user = (User) authentication.getPrincipal();
+
+        StreamTokenGetDTO streamTokenGetDTO = new StreamTokenGetDTO();
+        streamTokenGetDTO.setToken(jwtTokenService.generateStreamToken(user));
+        return streamTokenGetDTO;
     }
 
 }
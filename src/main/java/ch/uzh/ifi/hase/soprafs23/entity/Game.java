@@ -1,8 +1,11 @@
 package ch.uzh.ifi.hase.soprafs23.entity;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.*;
 
@@ -18,14 +21,16 @@ public class Game implements Serializable {
     @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
     private String id;
 
-    @OneToMany(cascade = CascadeType.ALL)
+    // ! templates are shared between games, see TemplateCatalog
+    @ManyToMany
+    @JoinTable(name = "GAME_TEMPLATES")
     private List<Template> templates;
 
     @Column(nullable = false)
     private GameSetting gameSetting;
 
-    @OneToMany(cascade = CascadeType.ALL)
-    @JoinColumn(name = "game_id")
+    @OneToMany(mappedBy = "game", cascade = CascadeType.ALL)
+    @OrderBy("roundNumber")
     private List<Round> rounds;
 
     @Column(nullable = false)
@@ -34,18 +39,36 @@ public class Game implements Serializable {
     @Column(nullable = false)
     private GameState state;
 
-    @OneToMany(cascade = CascadeType.REFRESH)
-    private List<User> players;
+    // * users are shared with the lobby, a game only adds its participations
+    @OneToMany(mappedBy = "game", cascade = CascadeType.ALL)
+    @OrderBy("id")
+    private List<GamePlayer> players;
 
     @Column(nullable = false)
     private Date startedAt;
 
+    // ! a write based on an outdated row fails instead of overwriting newer changes
+    // ! (defensive, running games are only written by the GamePersistenceJob)
+    @Version
+    private Long version;
+
+    /** template id -> template, built on first lookup */
+    private transient Map<String, Template> templatesById;
+
+    /** user id -> participation, built on first lookup */
+    private transient Map<String, GamePlayer> playersByUserId;
+
     public String getId() {
         return id;
     }
 
+    public void setId(String id) {
+        this.id = id;
+    }
+
     public void setTemplates(List<Template> templates) {
         this.templates = templates;
+        this.templatesById = null;
     }
 
     public List<Template> getTemplates() {
@@ -58,12 +81,18 @@ public class Game implements Serializable {
     }
 
     public Template getTemplateById(String id) {
-        for (Template template : templates) {
-            if (template.getId().equals(id)) {
-                return template;
+        if (templatesById == null) {
+            Map<String, Template> index = new HashMap<>();
+            for (Template template : templates) {
+                index.put(template.getId(), template);
             }
+            templatesById = index;
+        }
+        Template template = templatesById.get(id);
+        if (template == null) {
+            throw new IllegalArgumentException("Template with id " + id + " not found");
         }
-        throw new IllegalArgumentException("Template with id " + id + " not found");
+        return template;
     }
 
     public void setGameSetting(GameSetting gameSetting) {
@@ -91,6 +120,7 @@ public class Game implements Serializable {
     }
 
     public void addRound(Round round) {
+        round.setGame(this);
         this.rounds.add(round);
     }
 
@@ -110,14 +140,50 @@ public class Game implements Serializable {
         return state;
     }
 
-    public void setPlayers(List<User> players) {
+    public void setPlayers(List<GamePlayer> players) {
         this.players = players;
+        this.playersByUserId = null;
     }
 
-    public List<User> getPlayers() {
+    public List<GamePlayer> getPlayers() {
         return players;
     }
 
+    /**
+     * Adds a user as player of this game
+     *
+     * @param user
+     * @return the participation of the user
+     */
+    public GamePlayer addPlayer(User user) {
+        if (players == null) {
+            players = new ArrayList<>();
+        }
+        GamePlayer player = new GamePlayer();
+        player.setGame(this);
+        player.setUser(user);
+        players.add(player);
+        playersByUserId = null;
+        return player;
+    }
+
+    /**
+     * @param userId
+     * @return the participation of the user, null if the user does not play this game
+     */
+    public GamePlayer getPlayer(String userId) {
+        if (playersByUserId == null) {
+            Map<String, GamePlayer> index = new HashMap<>();
+            if (players != null) {
+                for (GamePlayer player : players) {
+                    index.put(player.getUser().getId(), player);
+                }
+            }
+            playersByUserId = index;
+        }
+        return playersByUserId.get(userId);
+    }
+
     public void setStartedAt(Date startedAt) {
         this.startedAt = startedAt;
     }
@@ -125,4 +191,12 @@ public class Game implements Serializable {
     public Date getStartedAt() {
         return startedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
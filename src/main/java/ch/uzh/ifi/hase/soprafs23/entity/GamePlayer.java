@@ -0,0 +1,78 @@
+package ch.uzh.ifi.hase.soprafs23.entity;
+
+import java.io.Serializable;
+
+import javax.persistence.*;
+
+/**
+ * Participation of a user in a game
+ * The user is shared with the lobby and other games, counters which only
+ * hold for this game (template swaps, score) are kept here.
+ */
+@Entity
+@Table(name = "GAME_PLAYER", uniqueConstraints = @UniqueConstraint(name = "UK_GAME_PLAYER_GAME_USER", columnNames = {
+        "game_id", "user_id" }), indexes = @Index(name = "IX_GAME_PLAYER_USER", columnList = "user_id"))
+public class GamePlayer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_player_seq")
+    @SequenceGenerator(name = "game_player_seq", sequenceName = "GAME_PLAYER_SEQ", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "game_id", nullable = false)
+    private Game game;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private int executedSwaps;
+
+    // * total of the ratings of the player's memes, written when a rating phase ends
+    @Column(nullable = false)
+    private int score;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public int getExecutedSwaps() {
+        return executedSwaps;
+    }
+
+    public void setExecutedSwaps(int executedSwaps) {
+        this.executedSwaps = executedSwaps;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+}
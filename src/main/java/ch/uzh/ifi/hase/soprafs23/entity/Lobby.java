@@ -4,11 +4,15 @@ import javax.persistence.*;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.StreamSupport;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Entity
-@Table(name = "LOBBY")
+@Table(name = "LOBBY", uniqueConstraints = @UniqueConstraint(name = "UK_LOBBY_CODE", columnNames = "code"))
 public class Lobby implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -46,6 +50,12 @@ public class Lobby implements Serializable {
 
     private String gameId;
 
+    // * user id -> player and ids of the kicked players, built on first use and
+    // * kept up to date by the methods adding and removing players
+    private transient Map<String, User> playersById;
+
+    private transient Set<String> kickedPlayerIds;
+
     public Long getId() {
         return id;
     }
@@ -92,6 +102,7 @@ public class Lobby implements Serializable {
 
     public void setPlayers(List<User> players) {
         this.players = players;
+        this.playersById = null;
     }
 
     // Help-function to check if a user exists in a list of users
@@ -104,6 +115,46 @@ public class Lobby implements Serializable {
         return false;
     }
 
+    /**
+     * @param userId
+     * @return true if the user is a player of the lobby
+     */
+    public boolean hasPlayer(String userId) {
+        return playersById().containsKey(userId);
+    }
+
+    /**
+     * @param userId
+     * @return true if the user was kicked from the lobby
+     */
+    public boolean isKicked(String userId) {
+        return kickedPlayerIds().contains(userId);
+    }
+
+    private Map<String, User> playersById() {
+        if (playersById == null) {
+            playersById = new HashMap<>();
+            if (players != null) {
+                for (User player : players) {
+                    playersById.put(player.getId(), player);
+                }
+            }
+        }
+        return playersById;
+    }
+
+    private Set<String> kickedPlayerIds() {
+        if (kickedPlayerIds == null) {
+            kickedPlayerIds = new HashSet<>();
+            if (kickedPlayers != null) {
+                for (User kickedPlayer : kickedPlayers) {
+                    kickedPlayerIds.add(kickedPlayer.getId());
+                }
+            }
+        }
+        return kickedPlayerIds;
+    }
+
     public void addPlayer(User player) {
         if (this.players == null) {
             this.players = new ArrayList<User>();
@@ -114,12 +165,12 @@ public class Lobby implements Serializable {
         }
 
         // check if player is already in lobby
-        if (containsUser(this.players, player)) {
+        if (hasPlayer(player.getId())) {
             throw new IllegalArgumentException("Player is already in the lobby");
         }
 
         // check if player is kicked
-        if (containsUser(this.kickedPlayers, player)) {
+        if (isKicked(player.getId())) {
             throw new IllegalArgumentException("Player is kicked and therefore not allowed to join");
         }
 
@@ -129,10 +180,13 @@ public class Lobby implements Serializable {
         }
 
         this.players.add(player);
+        playersById().put(player.getId(), player);
     }
 
     public void removePlayer(User player) {
-        this.players.remove(player);
+        if (playersById().remove(player.getId()) != null) {
+            this.players.removeIf(p -> Objects.equals(p.getId(), player.getId()));
+        }
     }
 
     public List<User> getKickedPlayers() {
@@ -141,10 +195,12 @@ public class Lobby implements Serializable {
 
     public void setKickedPlayers(List<User> kickedPlayers) {
         this.kickedPlayers = kickedPlayers;
+        this.kickedPlayerIds = null;
     }
 
     public void addKickedPlayer(User kickedPlayer) {
         this.kickedPlayers.add(kickedPlayer);
+        kickedPlayerIds().add(kickedPlayer.getId());
     }
 
     public List<Message> getMessages() {
@@ -168,11 +224,7 @@ public class Lobby implements Serializable {
     }
 
     public boolean isFull() {
-
-        Long totalUsers = StreamSupport.stream(this.players.spliterator(), true).count();
-
-        return this.lobbySetting.getMaxPlayers() == totalUsers.intValue();
-
+        return this.players.size() >= this.lobbySetting.getMaxPlayers();
     }
 
     public Date getGameStartedAt() {
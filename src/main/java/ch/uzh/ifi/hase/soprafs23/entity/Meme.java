@@ -2,20 +2,20 @@ package ch.uzh.ifi.hase.soprafs23.entity;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.UUID;
 
 import javax.persistence.*;
 
-import org.hibernate.annotations.GenericGenerator;
-
 @Entity
-@Table(name = "MEME")
+@Table(name = "MEME", uniqueConstraints = @UniqueConstraint(name = "UK_MEME_ROUND_USER", columnNames = { "round_id",
+        "user_id" }))
 public class Meme implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // * id is assigned when the meme is submitted, as it is handed out to the
+    // * clients before the meme is persisted
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
     private String id;
 
     @OneToOne
@@ -31,10 +31,13 @@ public class Meme implements Serializable {
     @JoinColumn(name = "round_id", nullable = false)
     private Round round;
 
-    @OneToMany(cascade = CascadeType.ALL)
+    // * owned by the text boxes, a meme is inserted with its text boxes only
+    @OneToMany(mappedBy = "meme", cascade = CascadeType.ALL)
     private List<TextBox> textBoxes;
 
-    @OneToOne
+    // ! one meme per user and round
+    @ManyToOne
+    @JoinColumn(name = "user_id")
     private User user;
 
     @Column(nullable = false)
@@ -44,6 +47,17 @@ public class Meme implements Serializable {
         return id;
     }
 
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    @PrePersist
+    private void assignId() {
+        if (id == null) {
+            id = UUID.randomUUID().toString();
+        }
+    }
+
     public Template getTemplate() {
         return template;
     }
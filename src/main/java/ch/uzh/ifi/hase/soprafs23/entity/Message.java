@@ -17,7 +17,8 @@ public class Message implements Serializable {
     // }
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_seq")
+    @SequenceGenerator(name = "message_seq", sequenceName = "MESSAGE_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -5,14 +5,20 @@ import java.io.Serializable;
 import javax.persistence.*;
 
 @Entity
-@Table(name = "RATING")
+@Table(name = "RATING", indexes = @Index(name = "IDX_RATING_ROUND_MEME", columnList = "round_id, meme_id"))
 public class Rating implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    // * ids are taken from the sequence in blocks, so inserts can be batched
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rating_seq")
+    @SequenceGenerator(name = "rating_seq", sequenceName = "RATING_SEQ", allocationSize = 50)
     private Long id;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "round_id", nullable = false)
+    private Round round;
+
     @OneToOne
     private User user;
 
@@ -26,6 +32,14 @@ public class Rating implements Serializable {
         return id;
     }
 
+    public Round getRound() {
+        return round;
+    }
+
+    public void setRound(Round round) {
+        this.round = round;
+    }
+
     public User getUser() {
         return user;
     }
@@ -3,23 +3,30 @@ package ch.uzh.ifi.hase.soprafs23.entity;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.*;
 
 @Entity
-@Table(name = "ROUND")
+@Table(name = "ROUND", uniqueConstraints = @UniqueConstraint(columnNames = { "game_id", "roundNumber" }))
 public class Round implements Serializable {
 
     private static final long serialVersionUID = 1L;
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "round_seq")
+    @SequenceGenerator(name = "round_seq", sequenceName = "ROUND_SEQ", allocationSize = 50)
     private Long id;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "game_id")
+    private Game game;
+
     @OneToMany(mappedBy = "round", cascade = CascadeType.ALL)
     private List<Meme> memes;
 
-    @OneToMany(cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "round", cascade = CascadeType.ALL)
     private List<Rating> ratings;
 
     @Column(nullable = false)
@@ -31,16 +38,35 @@ public class Round implements Serializable {
     @Column(nullable = false)
     private Date startedAt;
 
+    @Version
+    private Long version;
+
+    // * meme id -> meme and user id -> meme, built on first lookup and kept up
+    // * to date by addMeme
+    private transient Map<String, Meme> memesById;
+
+    private transient Map<String, Meme> memesByUserId;
+
     public Long getId() {
         return id;
     }
 
+    public Game getGame() {
+        return game;
+    }
+
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
     public List<Meme> getMemes() {
         return memes;
     }
 
     public void setMemes(List<Meme> memes) {
         this.memes = memes;
+        this.memesById = null;
+        this.memesByUserId = null;
     }
 
     public List<Rating> getRatings() {
@@ -59,23 +85,50 @@ public class Round implements Serializable {
     }
 
     public void setSubmitedMemes(List<Meme> memes) {
-        this.memes = memes;
+        setMemes(memes);
     }
 
     public void addMeme(Meme meme) {
         if (memes == null) {
             memes = new ArrayList<Meme>();
         }
+        indexMemes();
         memes.add(meme);
+        index(meme);
     }
 
     public Meme getMemeById(String id) {
-        for (Meme meme : memes) {
-            if (meme.getId().equals(id)) {
-                return meme;
+        indexMemes();
+        return memesById.get(id);
+    }
+
+    /**
+     * @param userId
+     * @return true if the user already submitted a meme to this round
+     */
+    public boolean hasMemeOf(String userId) {
+        indexMemes();
+        return memesByUserId.containsKey(userId);
+    }
+
+    private void indexMemes() {
+        if (memesById != null) {
+            return;
+        }
+        memesById = new HashMap<>();
+        memesByUserId = new HashMap<>();
+        if (memes != null) {
+            for (Meme meme : memes) {
+                index(meme);
             }
         }
-        return null;
+    }
+
+    private void index(Meme meme) {
+        memesById.put(meme.getId(), meme);
+        if (meme.getUser() != null) {
+            memesByUserId.put(meme.getUser().getId(), meme);
+        }
     }
 
     public List<Meme> getSubmitedMemes() {
@@ -106,4 +159,11 @@ public class Round implements Serializable {
         this.startedAt = startedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
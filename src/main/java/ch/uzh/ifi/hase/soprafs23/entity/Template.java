@@ -4,17 +4,14 @@ import java.io.Serializable;
 
 import javax.persistence.*;
 
-import org.hibernate.annotations.GenericGenerator;
-
 @Entity
 @Table(name = "TEMPLATE")
 public class Template implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // * id of the template at the meme api, templates are shared by all games
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
     private String id;
 
     @Column(nullable = false)
@@ -24,6 +21,10 @@ public class Template implements Serializable {
         return id;
     }
 
+    public void setId(String id) {
+        this.id = id;
+    }
+
     public String getImageUrl() {
         return imageUrl;
     }
@@ -8,14 +8,17 @@ import javax.persistence.*;
 @Table(name = "TEXTBOX")
 public class TextBox {
 
+    // * ids from a sequence, so the inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "textbox_seq")
+    @SequenceGenerator(name = "textbox_seq", sequenceName = "TEXTBOX_SEQ", allocationSize = 50)
     private Long id;
 
     private String text;
     private Integer xRate;
     private Integer yRate;
     @ManyToOne
+    @JoinColumn(name = "meme_id", nullable = false)
     @JsonIgnore
     private Meme meme;
 
@@ -5,6 +5,7 @@ import javax.persistence.*;
 import org.hibernate.annotations.GenericGenerator;
 
 import java.io.Serializable;
+import java.util.Date;
 import java.util.Objects;
 
 /**
@@ -31,8 +32,9 @@ public class User implements Serializable {
   @Column(nullable = false)
   private String name;
 
-  @Column(nullable = false)
-  private int executedSwaps;
+  // * users nobody refers to any more are deleted some time after (see RetentionSweeper)
+  @Column
+  private Date createdAt;
 
   public String getId() {
     return id;
@@ -50,13 +52,13 @@ public class User implements Serializable {
     this.name = name;
   }
 
-    public int getExecutedSwaps() {
-        return executedSwaps;
-    }
+  public Date getCreatedAt() {
+    return createdAt;
+  }
 
-    public void setExecutedSwaps(int executedSwaps) {
-        this.executedSwaps = executedSwaps;
-    }
+  public void setCreatedAt(Date createdAt) {
+    this.createdAt = createdAt;
+  }
 
     @Override
   public boolean equals(Object o) {
@@ -0,0 +1,37 @@
+package ch.uzh.ifi.hase.soprafs23.event;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+
+/**
+ * Published while holding the lock of a running game, whenever its state or
+ * round changed or a meme or rating was submitted. Listeners must not keep a
+ * reference to the game.
+ */
+public class GameChangedEvent {
+
+    /** What changed, used as name of the pushed event */
+    public enum Change {
+        STATE, MEME, RATING;
+
+        public String getEventName() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final Game game;
+
+    private final Change change;
+
+    public GameChangedEvent(Game game, Change change) {
+        this.game = game;
+        this.change = change;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public Change getChange() {
+        return change;
+    }
+}
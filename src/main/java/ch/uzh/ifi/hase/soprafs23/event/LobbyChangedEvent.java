@@ -0,0 +1,60 @@
+package ch.uzh.ifi.hase.soprafs23.event;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+
+/**
+ * Published whenever a lobby was created, its members, settings or game
+ * changed, or the lobby was closed.
+ */
+public class LobbyChangedEvent {
+
+    public enum Type {
+        CREATED("created"),
+        JOINED("joined"),
+        LEFT("left"),
+        KICKED("kicked"),
+        SETTINGS("settings"),
+        GAME_STARTED("gameStarted"),
+        CLOSED("closed");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+    }
+
+    private final Type type;
+
+    private final Lobby lobby;
+
+    private final User player;
+
+    /**
+     * @param type
+     * @param lobby
+     * @param player player who joined, left or was kicked, null otherwise
+     */
+    public LobbyChangedEvent(Type type, Lobby lobby, User player) {
+        this.type = type;
+        this.lobby = lobby;
+        this.player = player;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Lobby getLobby() {
+        return lobby;
+    }
+
+    public User getPlayer() {
+        return player;
+    }
+}
@@ -0,0 +1,28 @@
+package ch.uzh.ifi.hase.soprafs23.event;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+
+/**
+ * Published once every player finished the current phase of a game (all memes
+ * submitted or all ratings given). Allows the game to move on before the
+ * phase times out.
+ */
+public class PhaseCompletedEvent {
+
+    private final String gameId;
+
+    private final GameState phase;
+
+    public PhaseCompletedEvent(String gameId, GameState phase) {
+        this.gameId = gameId;
+        this.phase = phase;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public GameState getPhase() {
+        return phase;
+    }
+}
@@ -4,194 +4,219 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
-import org.hibernate.Session;
-import org.hibernate.SessionFactory;
-import org.hibernate.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GamePlayer;
+import ch.uzh.ifi.hase.soprafs23.entity.GameSetting;
 import ch.uzh.ifi.hase.soprafs23.entity.GameState;
 import ch.uzh.ifi.hase.soprafs23.entity.Meme;
 import ch.uzh.ifi.hase.soprafs23.entity.Rating;
 import ch.uzh.ifi.hase.soprafs23.entity.Round;
-import ch.uzh.ifi.hase.soprafs23.entity.User;
-
-// TODO: make testable by seperating components into smaller functions 
+import ch.uzh.ifi.hase.soprafs23.event.GameChangedEvent;
+import ch.uzh.ifi.hase.soprafs23.metrics.GameMetrics;
+import ch.uzh.ifi.hase.soprafs23.service.GameStateStore;
+import ch.uzh.ifi.hase.soprafs23.service.LiveGame;
 
 /**
  * Contains the code for the acutal game server
- * 
- * Game server updates every second
+ *
+ * A single run advances the game by (at most) one phase and tells the
+ * {@link GameScheduler} when the current phase times out. Runs work on the
+ * game held in the {@link GameStateStore}, changes are handed to the
+ * {@link GamePersistenceJob}.
  */
 @Service
-
-// @Transactional
-// ! this wraps the method in a transaction and only commits that transaction
-// ! once method exists. Thus it cant be used in a while (true) loop for the job
 public class GameJob {
 
     private final Logger log = LoggerFactory.getLogger(GameJob.class);
 
     @Autowired
-    private SessionFactory sessionFactory;
+    private GameStateStore gameStateStore;
+
+    @Autowired
+    private GamePersistenceJob gamePersistenceJob;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private GameMetrics gameMetrics;
 
     public GameJob() {
     }
 
     /**
-     * Executes the job which will manage the state throughout the lifetime of the
-     * game
-     * 
+     * Advances the state of the game if the current phase is over
+     *
      * @param gameId
+     * @return the time (epoch millis) at which the game has to be checked again,
+     *         null if the game is finished
      * @throws IllegalArgumentException if game is not found or certain attributes
      *                                  are null
      */
-    public void run(String gameId) throws IllegalArgumentException {
-        Session session = sessionFactory.openSession();
-
-        boolean gameRunning = true;
-        while (gameRunning) {
-            // start transaction
-            Transaction transaction = session.beginTransaction();
-
-            // get game
-            Game game = (Game) session.get(Game.class, gameId);
-            if (game == null || game.getId() == null || game.getId().isEmpty()) {
-                throw new IllegalArgumentException("Game not found");
-            }
-
-            // get game players
-            List<User> players = game.getPlayers();
-            // get current round
-            Round round = game.getRound();
-
-            // Calculate different phase start times
-            Long roundStart = round.getStartedAt().getTime();
-            Long ratingStart = roundStart + (game.getGameSetting().getRoundDuration() * 1000);
-            Long roundResultsStart = ratingStart + (game.getGameSetting().getRatingDuration() * 1000);
-            Long nextRoundStart = roundResultsStart + (game.getGameSetting().getRoundResultDuration() * 1000);
-
-            Long timeNow = Calendar.getInstance().getTime().getTime();
-
-            // System.out.println("Game id: " + game.getId());
-            // System.out.println("Game state: " + game.getState());
-            // System.out.println("Game round number: " + game.getCurrentRound());
-            // System.out.println("\n\n");
-
-            // Format format = new SimpleDateFormat("yyyy MM dd HH:mm:ss");
-            // System.out.println("\nRound started at: " + format.format(new
-            // Date(roundStart)));
-            // System.out.println("Rating started at: " + format.format(new
-            // Date(ratingStart)));
-            // System.out.println("Round results started at: " + format.format(new
-            // Date(roundResultsStart)));
-            // System.out.println("Next round started at: " + format.format(new
-            // Date(nextRoundStart)));
-            // System.out.println("\n");
-
-            // check if game is finished
-            if (game.getState() == GameState.RATING
-                    && game.getGameSetting().getMaxRounds().equals(game.getCurrentRound())
-                    && roundResultsStart <= timeNow) {
-
-                // set game state
-                game.setState(GameState.GAME_RESULTS);
-
-                // save changes
-                session.save(game);
+    public Long run(String gameId) throws IllegalArgumentException {
+        // get game
+        LiveGame liveGame = gameStateStore.get(gameId);
+        if (liveGame == null) {
+            throw new IllegalArgumentException("Game not found");
+        }
 
-                gameRunning = false;
+        long start = System.nanoTime();
+        long timeNow = Calendar.getInstance().getTime().getTime();
 
-                System.out.println("GameId: " + gameId + " - Round " + game.getCurrentRound() + " Phase GAME_RESULTS");
+        try {
+            return liveGame.withLock(game -> runLocked(gameId, liveGame, game, timeNow));
+        } finally {
+            gameMetrics.recordTick(System.nanoTime() - start);
+        }
+    }
 
+    /**
+     * Advances the game and hands the changes on, the lock of the game is held
+     */
+    private Long runLocked(String gameId, LiveGame liveGame, Game game, long timeNow) {
+        int rounds = game.getRounds().size();
+        boolean wasOpen = game.getRound().isOpen();
+        GameState phase = game.getState();
+        long phaseEnd = getPhaseEnd(game);
+
+        if (advance(game, timeNow)) {
+            gameMetrics.recordTransition(phase, phaseEnd, timeNow);
+            // persist changes
+            if (game.getRounds().size() > rounds) {
+                gamePersistenceJob.insertRound(gameId, game.getRound());
+            } else if (wasOpen != game.getRound().isOpen()) {
+                gamePersistenceJob.updateRound(gameId, game.getRound());
             }
-            // game not finished yet, next round
-            // check if round_result phase is over
-            else if (game.getState() == GameState.ROUND_RESULTS
-                    && nextRoundStart <= timeNow) {
-
-                // start creation phase
-                game.setState(GameState.CREATION);
-                // increment round
-                game.setCurrentRound(game.getCurrentRound() + 1);
-                // initialize new round
-                Round nextRound = new Round();
-                List<Meme> memes = new ArrayList<Meme>(players.size());
-                List<Rating> ratings = new ArrayList<Rating>(players.size() * (players.size() - 1));
-                nextRound.setMemes(memes);
-                nextRound.setRatings(ratings);
-                nextRound.setOpen(true);
-                nextRound.setRoundNumber(round.getRoundNumber() + 1);
-                nextRound.setStartedAt(Calendar.getInstance().getTime());
-                game.addRound(nextRound);
-
-                // persist changes
-                session.save(game);
-
-                System.out.println("GameId: " + gameId + " - Round " + game.getCurrentRound() + " Phase CREATION");
+            // * the ratings of the round are in -> scores are final until the next round
+            if (phase == GameState.RATING) {
+                for (GamePlayer player : game.getPlayers()) {
+                    player.setScore(liveGame.getScoreboard().getScore(player.getUser().getId()));
+                    gamePersistenceJob.updatePlayer(gameId, player);
+                }
             }
-            // check if everyone rated or rating phase is over
-            else if (round.getRatings().size() == players.size() || game.getState() == GameState.RATING
-                    && roundResultsStart <= timeNow) {
-                // start round result phase
-                game.setState(GameState.ROUND_RESULTS);
-
-                // save changes
-                session.save(game);
+            gamePersistenceJob.updateGame(game);
+            // push new state to the players
+            eventPublisher.publishEvent(new GameChangedEvent(game, GameChangedEvent.Change.STATE));
+            log.debug("Game {} round {} phase {}", gameId, game.getCurrentRound(), game.getState());
+        }
 
-                System.out.println("GameId: " + gameId + " - Round " + game.getCurrentRound() + " Phase ROUND_RESULTS");
+        if (game.getState() == GameState.GAME_RESULTS) {
+            return null;
+        }
+        // phases which end early are triggered by the GameService
+        return getPhaseEnd(game);
+    }
 
-            }
-            // check if everyone submited or creation phase is over
-            else if (round.getSubmitedMemes().size() == players.size() || game.getState() == GameState.CREATION
-                    && ratingStart <= timeNow) {
-                // close round
-                round.setOpen(false);
-                // start voting phase
-                game.setState(GameState.RATING);
+    /**
+     * Removes a finished game from memory, its rows are deleted by the
+     * {@link RetentionSweeper} once they expire
+     *
+     * @param gameId
+     */
+    public void evict(String gameId) {
+        gameStateStore.remove(gameId);
+    }
 
-                // save changes
-                session.save(game);
+    /**
+     * Moves the game into the next phase if the current one is over
+     *
+     * @param game
+     * @param timeNow
+     * @return true if the state of the game changed
+     */
+    boolean advance(Game game, long timeNow) {
+        // get game players
+        List<GamePlayer> players = game.getPlayers();
+        // get current round
+        Round round = game.getRound();
 
-                System.out.println("GameId: " + gameId + " - Round " + game.getCurrentRound() + " Phase RATING");
-            }
+        switch (game.getState()) {
+            // check if everyone submited or creation phase is over
+            case CREATION:
+                if (count(round.getSubmitedMemes()) == players.size() || getPhaseEnd(game) <= timeNow) {
+                    // close round
+                    round.setOpen(false);
+                    // start voting phase
+                    game.setState(GameState.RATING);
+                    return true;
+                }
+                return false;
 
-            // persist changes by commiting transaction
-            transaction.commit();
+            // check if everyone rated or rating phase is over
+            case RATING:
+                if (count(round.getRatings()) == players.size() || getPhaseEnd(game) <= timeNow) {
+                    // last round skips the round results and finishes the game
+                    if (game.getGameSetting().getMaxRounds().equals(game.getCurrentRound())) {
+                        game.setState(GameState.GAME_RESULTS);
+                    } else {
+                        game.setState(GameState.ROUND_RESULTS);
+                    }
+                    return true;
+                }
+                return false;
 
-            // sleep for 1 second
-            try {
-                Thread.sleep(1_000);
-            } catch (InterruptedException ie) {
-                log.error("GameJob was interrupted", ie);
-                Thread.currentThread().interrupt();
-            }
+            // check if round_result phase is over
+            case ROUND_RESULTS:
+                if (getPhaseEnd(game) <= timeNow) {
+                    // start creation phase
+                    game.setState(GameState.CREATION);
+                    // increment round
+                    game.setCurrentRound(game.getCurrentRound() + 1);
+                    // initialize new round
+                    Round nextRound = new Round();
+                    List<Meme> memes = new ArrayList<Meme>(players.size());
+                    List<Rating> ratings = new ArrayList<Rating>(players.size() * (players.size() - 1));
+                    nextRound.setMemes(memes);
+                    nextRound.setRatings(ratings);
+                    nextRound.setOpen(true);
+                    nextRound.setRoundNumber(round.getRoundNumber() + 1);
+                    nextRound.setStartedAt(Calendar.getInstance().getTime());
+                    game.addRound(nextRound);
+                    return true;
+                }
+                return false;
+
+            default:
+                return false;
         }
+    }
 
-        // delete the game after 10 seconds
-        // (allows client more than enough time to get state)
-        try {
-            Thread.sleep(10_000);
-            // start transaction
-            Transaction transaction = session.beginTransaction();
-            // delete the game
-            Game game = (Game) session.get(Game.class, gameId);
-            if (game == null || game.getId() == null || game.getId().isEmpty()) {
-                throw new IllegalArgumentException("Game not found");
-            }
-            session.delete(game);
-            transaction.commit();
-        } catch (InterruptedException ie) {
-            log.error("Unable to delete game after delay", ie);
-            Thread.currentThread().interrupt();
+    /**
+     * Returns the time (epoch millis) at which the current phase of the game
+     * ends. Phases are calculated from the start of the current round.
+     *
+     * @param game
+     * @return
+     */
+    static long getPhaseEnd(Game game) {
+        GameSetting gameSetting = game.getGameSetting();
+
+        // Calculate different phase start times
+        long roundStart = game.getRound().getStartedAt().getTime();
+        long ratingStart = roundStart + (gameSetting.getRoundDuration() * 1000L);
+        long roundResultsStart = ratingStart + (gameSetting.getRatingDuration() * 1000L);
+        long nextRoundStart = roundResultsStart + (gameSetting.getRoundResultDuration() * 1000L);
+
+        switch (game.getState()) {
+            case CREATION:
+                return ratingStart;
+            case RATING:
+                return roundResultsStart;
+            case ROUND_RESULTS:
+                return nextRoundStart;
+            default:
+                return Long.MAX_VALUE;
         }
+    }
 
-        // close session
-        session.close();
-
+    private static int count(List<?> list) {
+        return list == null ? 0 : list.size();
     }
 
 }
@@ -0,0 +1,392 @@
+package ch.uzh.ifi.hase.soprafs23.job;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GamePlayer;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.Rating;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+import ch.uzh.ifi.hase.soprafs23.entity.Template;
+import ch.uzh.ifi.hase.soprafs23.entity.TextBox;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Game Persistence Job
+ * Write-behind for the games held in the GameStateStore. Changes are queued
+ * and written to the database in batches, one transaction per batch.
+ *
+ * Every write takes a copy of the values it persists when it is queued (the
+ * caller holds the lock of the game), so the live game objects are never
+ * touched by the persistence thread.
+ *
+ * Running games are only written by this single thread, rows do not change
+ * between the reads and writes of a batch. The versions of games and rounds
+ * are defensive, a conflicting write fails like any other.
+ *
+ * A change which fails on its own is put back in front of the queue, with the
+ * changes after it, and written again at the next flush. After maxAttempts it
+ * is dropped, so one broken change does not hold up the others for good.
+ *
+ * Meters: game.persistence.dropped counts the dropped changes.
+ */
+@Component
+public class GamePersistenceJob {
+
+    private final Logger log = LoggerFactory.getLogger(GamePersistenceJob.class);
+
+    // * changes to retry are put back in front
+    private final BlockingDeque<Change> queue = new LinkedBlockingDeque<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "game-persistence");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long flushInterval;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final Counter droppedChanges;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public GamePersistenceJob(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${game.persistence.flush-interval:200}") long flushInterval,
+            @Value("${game.persistence.batch-size:500}") int batchSize,
+            @Value("${game.persistence.max-attempts:10}") int maxAttempts) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.droppedChanges = Counter.builder("game.persistence.dropped")
+                .description("Game changes which could not be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        // write what is left
+        flush();
+        if (!queue.isEmpty()) {
+            log.error("Dropped {} game changes on shutdown", queue.size());
+            droppedChanges.increment(queue.size());
+        }
+    }
+
+    /**
+     * Persists the state and the current round of a game
+     *
+     * @param game
+     */
+    public void updateGame(Game game) {
+        String gameId = game.getId();
+        GameState state = game.getState();
+        Integer currentRound = game.getCurrentRound();
+
+        // * bulk updates skip the version check, it is bumped to fail outdated writers
+        enqueue(batch -> batch.entityManager
+                .createQuery("UPDATE Game g SET g.state = :state, g.currentRound = :currentRound, "
+                        + "g.version = g.version + 1 WHERE g.id = :id")
+                .setParameter("state", state)
+                .setParameter("currentRound", currentRound)
+                .setParameter("id", gameId)
+                .executeUpdate());
+    }
+
+    /**
+     * Persists the swaps and the score of a player of a game
+     *
+     * @param gameId
+     * @param player
+     */
+    public void updatePlayer(String gameId, GamePlayer player) {
+        String userId = player.getUser().getId();
+        int executedSwaps = player.getExecutedSwaps();
+        int score = player.getScore();
+
+        enqueue(batch -> batch.entityManager
+                .createQuery("UPDATE GamePlayer p SET p.executedSwaps = :executedSwaps, p.score = :score "
+                        + "WHERE p.game.id = :gameId AND p.user.id = :userId")
+                .setParameter("executedSwaps", executedSwaps)
+                .setParameter("score", score)
+                .setParameter("gameId", gameId)
+                .setParameter("userId", userId)
+                .executeUpdate());
+    }
+
+    /**
+     * Persists a new round of a game
+     *
+     * @param gameId
+     * @param round
+     */
+    public void insertRound(String gameId, Round round) {
+        Integer roundNumber = round.getRoundNumber();
+        boolean open = round.isOpen();
+        Date startedAt = round.getStartedAt();
+
+        enqueue(batch -> {
+            Round row = new Round();
+            row.setGame(batch.entityManager.getReference(Game.class, gameId));
+            row.setRoundNumber(roundNumber);
+            row.setOpen(open);
+            row.setStartedAt(startedAt);
+            row.setMemes(new ArrayList<>());
+            row.setRatings(new ArrayList<>());
+            batch.entityManager.persist(row);
+            batch.rounds.put(gameId + ":" + roundNumber, row);
+        });
+    }
+
+    /**
+     * Persists whether a round of a game is open
+     *
+     * @param gameId
+     * @param round
+     */
+    public void updateRound(String gameId, Round round) {
+        Integer roundNumber = round.getRoundNumber();
+        boolean open = round.isOpen();
+
+        enqueue(batch -> batch.getRound(gameId, roundNumber).setOpen(open));
+    }
+
+    /**
+     * Persists a meme submitted to a round of a game
+     *
+     * @param gameId
+     * @param round
+     * @param meme
+     */
+    public void insertMeme(String gameId, Round round, Meme meme) {
+        Integer roundNumber = round.getRoundNumber();
+        String memeId = meme.getId();
+        String color = meme.getColor();
+        int fontSize = meme.getFontSize();
+        String backgroundColor = meme.getBackgroundColor();
+        String templateId = meme.getTemplate().getId();
+        String userId = meme.getUser().getId();
+        List<TextBox> textBoxes = new ArrayList<>();
+        for (TextBox t : meme.getTextBoxes()) {
+            TextBox textBox = new TextBox();
+            textBox.setText(t.getText());
+            textBox.setxRate(t.getxRate());
+            textBox.setyRate(t.getyRate());
+            textBoxes.add(textBox);
+        }
+
+        // * inserts the meme and its text boxes only, the round is referenced by id.
+        // * a second meme of the user in the round violates UK_MEME_ROUND_USER
+        enqueue(batch -> {
+            Meme row = new Meme();
+            row.setId(memeId);
+            row.setColor(color);
+            row.setFontSize(fontSize);
+            row.setBackgroundColor(backgroundColor);
+            row.setTemplate(batch.entityManager.getReference(Template.class, templateId));
+            row.setUser(batch.entityManager.getReference(User.class, userId));
+            row.setRound(batch.entityManager.getReference(Round.class, batch.getRoundId(gameId, roundNumber)));
+            for (TextBox textBox : textBoxes) {
+                textBox.setMeme(row);
+            }
+            row.setTextBoxes(textBoxes);
+            batch.entityManager.persist(row);
+        });
+    }
+
+    /**
+     * Persists a rating given in a round of a game
+     *
+     * @param gameId
+     * @param round
+     * @param rating
+     */
+    public void insertRating(String gameId, Round round, Rating rating) {
+        Integer roundNumber = round.getRoundNumber();
+        Integer value = rating.getRating();
+        String memeId = rating.getMeme().getId();
+        String userId = rating.getUser().getId();
+
+        // * append only: the row references the round, neither the round nor its
+        // * ratings are loaded
+        enqueue(batch -> {
+            Rating row = new Rating();
+            row.setRating(value);
+            row.setRound(batch.entityManager.getReference(Round.class, batch.getRoundId(gameId, roundNumber)));
+            row.setMeme(batch.entityManager.getReference(Meme.class, memeId));
+            row.setUser(batch.entityManager.getReference(User.class, userId));
+            batch.entityManager.persist(row);
+        });
+    }
+
+    /**
+     * Deletes a game including its rounds, memes and ratings
+     *
+     * @param gameId
+     */
+    public void deleteGame(String gameId) {
+        enqueue(batch -> {
+            Game game = batch.entityManager.find(Game.class, gameId);
+            if (game != null) {
+                batch.entityManager.remove(game);
+            }
+        });
+    }
+
+    private void enqueue(Write write) {
+        queue.add(new Change(write));
+    }
+
+    /**
+     * Writes all queued changes, stops at a change which has to be retried
+     */
+    void flush() {
+        List<Change> changes = new ArrayList<>(batchSize);
+        try {
+            while (queue.drainTo(changes, batchSize) > 0) {
+                boolean written = write(changes);
+                changes.clear();
+                if (!written) {
+                    // retried at the next flush
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // never let an exception cancel the scheduled flushes
+            log.error("Unable to persist game changes", e);
+        }
+    }
+
+    /**
+     * Writes a batch of changes in one transaction, one by one if that fails
+     *
+     * @param changes
+     * @return false if a change failed and was put back with the changes after it
+     */
+    private boolean write(List<Change> changes) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Batch batch = new Batch(entityManager);
+                for (Change change : changes) {
+                    change.write.apply(batch);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} game changes failed, retrying one by one", changes.size(), e);
+        }
+
+        // isolate the failing change(s)
+        for (int i = 0; i < changes.size(); i++) {
+            Change change = changes.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> change.write.apply(new Batch(entityManager)));
+            } catch (RuntimeException e) {
+                change.attempts++;
+                if (change.attempts < maxAttempts) {
+                    log.warn("Game change failed (attempt {} of {}), retrying", change.attempts, maxAttempts, e);
+                    // ! in their order, later changes may depend on the failed one
+                    List<Change> remaining = changes.subList(i, changes.size());
+                    for (int j = remaining.size() - 1; j >= 0; j--) {
+                        queue.addFirst(remaining.get(j));
+                    }
+                    return false;
+                }
+                log.error("Dropped game change after {} attempts", change.attempts, e);
+                droppedChanges.increment();
+            }
+        }
+        return true;
+    }
+
+    /** A queued change */
+    private interface Write {
+        void apply(Batch batch);
+    }
+
+    /** A change and the number of times it failed */
+    private static class Change {
+        private final Write write;
+
+        private int attempts;
+
+        Change(Write write) {
+            this.write = write;
+        }
+    }
+
+    /** State shared by the changes written in one transaction */
+    private static class Batch {
+        private final EntityManager entityManager;
+
+        private final Map<String, Round> rounds = new HashMap<>();
+
+        private final Map<String, Long> roundIds = new HashMap<>();
+
+        Batch(EntityManager entityManager) {
+            this.entityManager = entityManager;
+        }
+
+        Round getRound(String gameId, Integer roundNumber) {
+            return rounds.computeIfAbsent(gameId + ":" + roundNumber, key -> entityManager
+                    .createQuery("SELECT r FROM Round r WHERE r.game.id = :gameId AND r.roundNumber = :roundNumber",
+                            Round.class)
+                    .setParameter("gameId", gameId)
+                    .setParameter("roundNumber", roundNumber)
+                    .getSingleResult());
+        }
+
+        Long getRoundId(String gameId, Integer roundNumber) {
+            String key = gameId + ":" + roundNumber;
+            Round round = rounds.get(key);
+            if (round != null) {
+                // inserted or loaded by this batch
+                return round.getId();
+            }
+            return roundIds.computeIfAbsent(key, k -> entityManager
+                    .createQuery("SELECT r.id FROM Round r WHERE r.game.id = :gameId AND r.roundNumber = :roundNumber",
+                            Long.class)
+                    .setParameter("gameId", gameId)
+                    .setParameter("roundNumber", roundNumber)
+                    .getSingleResult());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package ch.uzh.ifi.hase.soprafs23.job;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ch.uzh.ifi.hase.soprafs23.event.PhaseCompletedEvent;
+import ch.uzh.ifi.hase.soprafs23.logging.LogContext;
+import ch.uzh.ifi.hase.soprafs23.service.GameService;
+
+/**
+ * Game Scheduler
+ * Drives all running games with a small, fixed pool of threads. Instead of
+ * one thread per game, each game is only woken up when its current phase is
+ * due (see {@link GameJob#run(String)}) or when all players completed the
+ * phase early (see {@link PhaseCompletedEvent}).
+ */
+@Component
+public class GameScheduler {
+
+    private final Logger log = LoggerFactory.getLogger(GameScheduler.class);
+
+    /** allows client more than enough time to get the final state */
+    private static final long GAME_EVICTION_DELAY = 10_000;
+
+    /** delay before a failed run is retried */
+    private static final long RETRY_DELAY = 1_000;
+
+    private final GameJob gameJob;
+
+    private final GameService gameService;
+
+    private final ScheduledExecutorService executor;
+
+    private final Map<String, ScheduledGame> games = new ConcurrentHashMap<>();
+
+    public GameScheduler(GameJob gameJob, GameService gameService,
+            @Value("${game.scheduler.pool-size:2}") int poolSize) {
+        this.gameJob = gameJob;
+        this.gameService = gameService;
+        this.executor = Executors.newScheduledThreadPool(poolSize, new GameThreadFactory());
+    }
+
+    /**
+     * Starts managing the state of a game throughout its lifetime
+     *
+     * @param gameId
+     */
+    public void schedule(String gameId) {
+        games.computeIfAbsent(gameId, ScheduledGame::new).runAfter(0);
+    }
+
+    /**
+     * Schedules the games again which were running when the server stopped,
+     * otherwise they would stay in their phase (and in the database) forever.
+     * Phases which timed out in the meantime are caught up right away.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeGames() {
+        List<String> gameIds = gameService.resumeGames();
+        gameIds.forEach(this::schedule);
+        if (!gameIds.isEmpty()) {
+            log.info("Resumed {} running games", gameIds.size());
+        }
+    }
+
+    /**
+     * Runs the game right away once everyone completed the current phase,
+     * instead of waiting for the phase to time out.
+     * Listens after commit, so the run sees the submission that completed it.
+     *
+     * @param event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPhaseCompleted(PhaseCompletedEvent event) {
+        ScheduledGame game = games.get(event.getGameId());
+        if (game != null) {
+            game.runAfter(0);
+        }
+    }
+
+    private void evict(String gameId) {
+        try {
+            gameJob.evict(gameId);
+        } catch (RuntimeException e) {
+            log.error("Unable to evict game {}", gameId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A game managed by the scheduler. Runs of the same game never overlap and
+     * only the earliest pending run is kept.
+     */
+    private class ScheduledGame {
+        private final String gameId;
+
+        private ScheduledFuture<?> next;
+
+        ScheduledGame(String gameId) {
+            this.gameId = gameId;
+        }
+
+        synchronized void runAfter(long delay) {
+            if (next != null) {
+                next.cancel(false);
+            }
+            next = executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized void run() {
+            try (MDC.MDCCloseable context = MDC.putCloseable(LogContext.GAME_ID, gameId)) {
+                runJob();
+            }
+        }
+
+        private void runJob() {
+            Long nextRunAt;
+            try {
+                nextRunAt = gameJob.run(gameId);
+            } catch (IllegalArgumentException e) {
+                log.warn("Stopped scheduling game {}: {}", gameId, e.getMessage());
+                games.remove(gameId);
+                return;
+            } catch (RuntimeException e) {
+                log.error("GameJob failed for game {}, retrying", gameId, e);
+                runAfter(RETRY_DELAY);
+                return;
+            }
+
+            // game finished -> drop it from memory after a delay
+            if (nextRunAt == null) {
+                games.remove(gameId);
+                executor.schedule(() -> evict(gameId), GAME_EVICTION_DELAY, TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            runAfter(Math.max(0, nextRunAt - System.currentTimeMillis()));
+        }
+    }
+
+    private static class GameThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "game-scheduler-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
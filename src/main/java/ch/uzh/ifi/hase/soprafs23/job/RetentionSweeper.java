@@ -0,0 +1,278 @@
+package ch.uzh.ifi.hase.soprafs23.job;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.service.GameStateStore;
+import ch.uzh.ifi.hase.soprafs23.service.LobbyService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Retention Sweeper
+ * Periodically deletes what is no longer played with, a batch of rows per
+ * statement and one transaction per batch:
+ * - finished games started before the game retention, with their players,
+ * rounds, memes, text boxes and ratings
+ * - lobbies whose game started before the lobby retention, with their messages
+ * - users nobody refers to, created before the user retention
+ *
+ * Meters: retention.deleted (type) counts the deleted rows, retention.sweep
+ * times a sweep.
+ */
+@Component
+public class RetentionSweeper {
+
+    private final Logger log = LoggerFactory.getLogger(RetentionSweeper.class);
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "retention-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final GameStateStore gameStateStore;
+
+    private final LobbyService lobbyService;
+
+    private final long interval;
+
+    private final long gameRetention;
+
+    private final long lobbyRetention;
+
+    private final long userRetention;
+
+    private final int batchSize;
+
+    private final Timer sweepTimer;
+
+    private final Counter deletedGames;
+
+    private final Counter deletedLobbies;
+
+    private final Counter deletedMessages;
+
+    private final Counter deletedUsers;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public RetentionSweeper(PlatformTransactionManager transactionManager, GameStateStore gameStateStore,
+            LobbyService lobbyService, MeterRegistry meterRegistry,
+            @Value("${retention.interval:300000}") long interval,
+            @Value("${retention.games:3600000}") long gameRetention,
+            @Value("${retention.lobbies:3600000}") long lobbyRetention,
+            @Value("${retention.users:7200000}") long userRetention,
+            @Value("${retention.batch-size:200}") int batchSize,
+            @Value("${jwt.validity:7200000}") long tokenValidity) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gameStateStore = gameStateStore;
+        this.lobbyService = lobbyService;
+        this.interval = interval;
+        this.gameRetention = gameRetention;
+        this.lobbyRetention = lobbyRetention;
+        // ! a user must not be deleted while its token can still be used to join a lobby
+        this.userRetention = Math.max(userRetention, tokenValidity);
+        this.batchSize = batchSize;
+
+        this.sweepTimer = Timer.builder("retention.sweep")
+                .description("Duration of a retention sweep")
+                .register(meterRegistry);
+        this.deletedGames = deletedCounter(meterRegistry, "games");
+        this.deletedLobbies = deletedCounter(meterRegistry, "lobbies");
+        this.deletedMessages = deletedCounter(meterRegistry, "messages");
+        this.deletedUsers = deletedCounter(meterRegistry, "users");
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.scheduleWithFixedDelay(this::run, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    private void run() {
+        try {
+            sweep(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            // never let an exception cancel the scheduled sweeps
+            log.error("Retention sweep failed", e);
+        }
+    }
+
+    /**
+     * Deletes everything which expired by the given time
+     *
+     * @param timeNow epoch millis
+     */
+    public void sweep(long timeNow) {
+        long start = System.nanoTime();
+        try {
+            int games = repeat(() -> deleteGames(new Date(timeNow - gameRetention)));
+            int lobbies = repeat(() -> deleteLobbies(new Date(timeNow - lobbyRetention)));
+            // * last, the games and lobbies just deleted no longer refer to their users
+            int users = repeat(() -> deleteUsers(new Date(timeNow - userRetention)));
+            if (games + lobbies + users > 0) {
+                log.info("Deleted {} games, {} lobbies and {} users", games, lobbies, users);
+            }
+        } finally {
+            sweepTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Runs a batch in its own transaction until there is nothing left
+     *
+     * @return total number of deleted rows
+     */
+    private int repeat(Batch batch) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> batch.delete());
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+
+    private int deleteGames(Date startedBefore) {
+        // * running games are never deleted: a game is finished in the database once
+        // * it is finished in memory, unfinished ones are resumed after a restart
+        List<String> gameIds = entityManager
+                .createQuery("SELECT g.id FROM Game g WHERE g.startedAt < :startedBefore AND g.state = :finished "
+                        + "ORDER BY g.startedAt", String.class)
+                .setParameter("startedBefore", startedBefore)
+                .setParameter("finished", GameState.GAME_RESULTS)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (gameIds.isEmpty()) {
+            return 0;
+        }
+        // finished games may still be in memory
+        gameIds.forEach(gameStateStore::remove);
+
+        List<Long> roundIds = entityManager
+                .createQuery("SELECT r.id FROM Round r WHERE r.game.id IN :gameIds", Long.class)
+                .setParameter("gameIds", gameIds)
+                .getResultList();
+        if (!roundIds.isEmpty()) {
+            List<String> memeIds = entityManager
+                    .createQuery("SELECT m.id FROM Meme m WHERE m.round.id IN :roundIds", String.class)
+                    .setParameter("roundIds", roundIds)
+                    .getResultList();
+
+            // ratings refer to the memes
+            deleteIn("DELETE FROM Rating r WHERE r.round.id IN :ids", roundIds);
+            deleteIn("DELETE FROM TextBox t WHERE t.meme.id IN :ids", memeIds);
+            deleteIn("DELETE FROM Meme m WHERE m.id IN :ids", memeIds);
+            deleteIn("DELETE FROM Round r WHERE r.id IN :ids", roundIds);
+        }
+        deleteIn("DELETE FROM GamePlayer p WHERE p.game.id IN :ids", gameIds);
+        deleteNativeIn("DELETE FROM game_templates WHERE game_id IN :ids", gameIds);
+        int deleted = deleteIn("DELETE FROM Game g WHERE g.id IN :ids", gameIds);
+
+        deletedGames.increment(deleted);
+        return gameIds.size();
+    }
+
+    private int deleteLobbies(Date gameStartedBefore) {
+        List<Object[]> idsAndCodes = entityManager
+                .createQuery("SELECT l.id, l.code FROM Lobby l WHERE l.gameStartedAt < :startedBefore ORDER BY l.id",
+                        Object[].class)
+                .setParameter("startedBefore", gameStartedBefore)
+                .setMaxResults(batchSize)
+                .getResultList();
+        if (idsAndCodes.isEmpty()) {
+            return 0;
+        }
+        List<Long> lobbyIds = new ArrayList<>(idsAndCodes.size());
+        List<String> codes = new ArrayList<>(idsAndCodes.size());
+        for (Object[] idAndCode : idsAndCodes) {
+            lobbyIds.add((Long) idAndCode[0]);
+            codes.add((String) idAndCode[1]);
+        }
+
+        List<Long> messageIds = entityManager
+                .createQuery("SELECT m.id FROM Lobby l JOIN l.messages m WHERE l.id IN :lobbyIds", Long.class)
+                .setParameter("lobbyIds", lobbyIds)
+                .getResultList();
+        deleteNativeIn("DELETE FROM lobby_players WHERE lobby_id IN :ids", lobbyIds);
+        deleteNativeIn("DELETE FROM lobby_kicked_players WHERE lobby_id IN :ids", lobbyIds);
+        deleteNativeIn("DELETE FROM lobby_messages WHERE lobby_id IN :ids", lobbyIds);
+        deletedMessages.increment(deleteIn("DELETE FROM Message m WHERE m.id IN :ids", messageIds));
+        deletedLobbies.increment(deleteIn("DELETE FROM Lobby l WHERE l.id IN :ids", lobbyIds));
+        lobbyService.releaseCodes(codes);
+
+        return lobbyIds.size();
+    }
+
+    private int deleteUsers(Date createdBefore) {
+        List<String> userIds = entityManager
+                .createQuery("SELECT u.id FROM User u WHERE (u.createdAt IS NULL OR u.createdAt < :createdBefore) "
+                        + "AND NOT EXISTS (SELECT l FROM Lobby l WHERE l.owner = u) "
+                        + "AND NOT EXISTS (SELECT l FROM Lobby l JOIN l.players p WHERE p = u) "
+                        + "AND NOT EXISTS (SELECT l FROM Lobby l JOIN l.kickedPlayers k WHERE k = u) "
+                        + "AND NOT EXISTS (SELECT p FROM GamePlayer p WHERE p.user = u) "
+                        + "AND NOT EXISTS (SELECT m FROM Meme m WHERE m.user = u) "
+                        + "AND NOT EXISTS (SELECT r FROM Rating r WHERE r.user = u) "
+                        + "AND NOT EXISTS (SELECT m FROM Message m WHERE m.user = u)", String.class)
+                .setParameter("createdBefore", createdBefore)
+                .setMaxResults(batchSize)
+                .getResultList();
+
+        deletedUsers.increment(deleteIn("DELETE FROM User u WHERE u.id IN :ids", userIds));
+        return userIds.size();
+    }
+
+    private int deleteIn(String query, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createQuery(query).setParameter("ids", ids).executeUpdate();
+    }
+
+    // ! join tables have no entity, their rows are deleted with SQL
+    private int deleteNativeIn(String query, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return entityManager.createNativeQuery(query).setParameter("ids", ids).executeUpdate();
+    }
+
+    private static Counter deletedCounter(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("retention.deleted")
+                .description("Rows deleted by the retention sweeper")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    /** Deletes one batch, returns the number of selected rows */
+    private interface Batch {
+        int delete();
+    }
+}
@@ -0,0 +1,19 @@
+package ch.uzh.ifi.hase.soprafs23.logging;
+
+/**
+ * Keys of the MDC (mapped diagnostic context) values, which are added to
+ * every log line written while they are set (see logback-spring.xml)
+ * - gameId, lobbyCode: path variables of the request or the game being run
+ * - userId: authenticated user of the request
+ */
+public final class LogContext {
+
+    public static final String GAME_ID = "gameId";
+
+    public static final String LOBBY_CODE = "lobbyCode";
+
+    public static final String USER_ID = "userId";
+
+    private LogContext() {
+    }
+}
@@ -0,0 +1,56 @@
+package ch.uzh.ifi.hase.soprafs23.logging;
+
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.MDC;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Puts the game id and lobby code of the request path into the MDC while the
+ * request is handled
+ * Async handlers (the SSE streams) give the thread back before the request
+ * completes, afterCompletion is not called on it -> cleared when the async
+ * handling starts.
+ */
+public class LogContextInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String[] PATH_VARIABLES = { LogContext.GAME_ID, LogContext.LOBBY_CODE };
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request
+                .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables != null) {
+            for (String key : PATH_VARIABLES) {
+                String value = variables.get(key);
+                if (value != null) {
+                    MDC.put(key, value);
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        clear();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        clear();
+    }
+
+    private static void clear() {
+        for (String key : PATH_VARIABLES) {
+            MDC.remove(key);
+        }
+    }
+}
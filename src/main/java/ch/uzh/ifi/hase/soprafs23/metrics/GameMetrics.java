@@ -0,0 +1,119 @@
+package ch.uzh.ifi.hase.soprafs23.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.service.GameStateStore;
+import ch.uzh.ifi.hase.soprafs23.service.LiveGame;
+import ch.uzh.ifi.hase.soprafs23.service.LobbyService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Game Metrics
+ * Meters of the running games and lobbies, scraped from /actuator/prometheus
+ * - game.active (state): games held in memory
+ * - lobby.active: open lobbies
+ * - game.job.tick: duration of a GameJob run
+ * - game.phase.transitions (phase, trigger): phases which ended, because
+ * their time was up ("deadline") or everyone submitted ("completed")
+ * - game.phase.lateness (phase): time a phase ended after its deadline
+ * - game.memes, game.ratings: submissions, per second as rate
+ */
+@Component
+public class GameMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer tick;
+
+    private final Counter memes;
+
+    private final Counter ratings;
+
+    private final Map<GameState, Timer> lateness = new EnumMap<>(GameState.class);
+
+    public GameMetrics(MeterRegistry meterRegistry, GameStateStore gameStateStore, LobbyService lobbyService) {
+        this.meterRegistry = meterRegistry;
+
+        for (GameState state : GameState.values()) {
+            Gauge.builder("game.active", gameStateStore, store -> count(store, state))
+                    .description("Games held in memory")
+                    .tag("state", state.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("lobby.active", lobbyService, LobbyService::getLobbyCount)
+                .description("Open lobbies")
+                .register(meterRegistry);
+
+        this.tick = Timer.builder("game.job.tick")
+                .description("Duration of a game job run")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.memes = Counter.builder("game.memes")
+                .description("Submitted memes")
+                .register(meterRegistry);
+        this.ratings = Counter.builder("game.ratings")
+                .description("Submitted ratings")
+                .register(meterRegistry);
+
+        // * only timed phases can be late
+        for (GameState state : new GameState[] { GameState.CREATION, GameState.RATING, GameState.ROUND_RESULTS }) {
+            lateness.put(state, Timer.builder("game.phase.lateness")
+                    .description("Time a phase ended after its deadline")
+                    .tag("phase", state.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * @param nanos duration of a GameJob run
+     */
+    public void recordTick(long nanos) {
+        tick.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a phase which ended
+     *
+     * @param phase    state the game left
+     * @param deadline time (epoch millis) the phase was scheduled to end
+     * @param now      time (epoch millis) the phase ended
+     */
+    public void recordTransition(GameState phase, long deadline, long now) {
+        boolean timedOut = deadline <= now;
+        meterRegistry.counter("game.phase.transitions", "phase", phase.name(), "trigger",
+                timedOut ? "deadline" : "completed").increment();
+
+        Timer timer = lateness.get(phase);
+        if (timedOut && timer != null) {
+            timer.record(now - deadline, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void memeSubmitted() {
+        memes.increment();
+    }
+
+    public void ratingSubmitted() {
+        ratings.increment();
+    }
+
+    private static double count(GameStateStore gameStateStore, GameState state) {
+        int count = 0;
+        for (LiveGame liveGame : gameStateStore.getGames()) {
+            // ! read without the lock, a game changing right now may be counted in its old state
+            if (liveGame.getGame().getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
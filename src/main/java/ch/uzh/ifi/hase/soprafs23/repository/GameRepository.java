@@ -1,18 +1,32 @@
 package ch.uzh.ifi.hase.soprafs23.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
 
 @Repository("gameRepository")
 public interface GameRepository extends JpaRepository<Game, Long> {
-    @Query("SELECT g FROM Game g JOIN FETCH g.rounds WHERE g.id = :gameId")
-    Optional<Game> findByIdWithRounds(@Param("gameId") String gameId);
-
     Optional<Game> findById(String id);
+
+    @Query("SELECT g.id FROM Game g WHERE g.state <> :state ORDER BY g.startedAt")
+    List<String> findIdsByStateNot(@Param("state") GameState state);
+
+    // ! players and templates are both lists, fetching them together
+    // ! would multiply the rows -> one query each
+
+    @EntityGraph(attributePaths = { "players", "players.user" })
+    @Query("SELECT g FROM Game g WHERE g.id = :gameId")
+    Optional<Game> findWithPlayersById(@Param("gameId") String gameId);
+
+    @EntityGraph(attributePaths = { "templates" })
+    @Query("SELECT g FROM Game g WHERE g.id = :gameId")
+    Optional<Game> findWithTemplatesById(@Param("gameId") String gameId);
 }
@@ -3,7 +3,12 @@ package ch.uzh.ifi.hase.soprafs23.repository;
 
 import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
 
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository("lobbyRepository")
@@ -11,4 +16,38 @@ public interface LobbyRepository extends JpaRepository<Lobby, Long> {
     Lobby findByName(String name);
 
     Lobby findByCode(String code);
+
+    /**
+     * @return code and id of every lobby
+     */
+    @Query("SELECT l.code, l.id FROM Lobby l")
+    List<Object[]> findAllCodesAndIds();
+
+    /**
+     * Public lobbies which can be joined, ordered by id
+     *
+     * @param cursor   only lobbies with a greater id
+     * @param pageable size of the page
+     * @return
+     */
+    @Query("SELECT l.id AS id, l.code AS code, l.name AS name, SIZE(l.players) AS playerCount, "
+            + "l.lobbySetting.maxPlayers AS maxPlayers FROM Lobby l "
+            + "WHERE l.id > :cursor AND l.lobbySetting.isPublic = true AND l.isJoinable = true "
+            + "AND l.gameStartedAt IS NULL AND SIZE(l.players) < l.lobbySetting.maxPlayers ORDER BY l.id")
+    List<LobbySummary> findPublicLobbies(@Param("cursor") long cursor, Pageable pageable);
+
+    /**
+     * Projection of a lobby for the lobby browser
+     */
+    interface LobbySummary {
+        Long getId();
+
+        String getCode();
+
+        String getName();
+
+        Integer getPlayerCount();
+
+        Integer getMaxPlayers();
+    }
 }
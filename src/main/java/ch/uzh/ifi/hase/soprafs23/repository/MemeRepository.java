@@ -2,9 +2,31 @@ package ch.uzh.ifi.hase.soprafs23.repository;
 
 import ch.uzh.ifi.hase.soprafs23.entity.Meme;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface MemeRepository extends JpaRepository<Meme, Long> {
     List<Meme> findAllByRound_Id(Long id);
+
+    /**
+     * Memes of a round with their text boxes, template and user
+     *
+     * @param roundId
+     * @return
+     */
+    @Query("SELECT DISTINCT m FROM Meme m LEFT JOIN FETCH m.textBoxes LEFT JOIN FETCH m.template "
+            + "LEFT JOIN FETCH m.user WHERE m.round.id = :roundId")
+    List<Meme> findAllWithTextBoxesByRoundId(@Param("roundId") Long roundId);
+
+    /**
+     * Memes of all rounds of a game with their text boxes, template and user
+     *
+     * @param gameId
+     * @return
+     */
+    @Query("SELECT DISTINCT m FROM Meme m LEFT JOIN FETCH m.textBoxes LEFT JOIN FETCH m.template "
+            + "LEFT JOIN FETCH m.user WHERE m.round.game.id = :gameId")
+    List<Meme> findAllWithTextBoxesByGameId(@Param("gameId") String gameId);
 }
@@ -0,0 +1,33 @@
+package ch.uzh.ifi.hase.soprafs23.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+
+@Repository("roundRepository")
+public interface RoundRepository extends JpaRepository<Round, Long> {
+
+    /**
+     * Rounds of a game with their memes
+     *
+     * @param gameId
+     * @return
+     */
+    @Query("SELECT DISTINCT r FROM Round r LEFT JOIN FETCH r.memes WHERE r.game.id = :gameId")
+    List<Round> findAllWithMemesByGameId(@Param("gameId") String gameId);
+
+    /**
+     * Rounds of a game with their ratings and the users who rated
+     *
+     * @param gameId
+     * @return
+     */
+    @Query("SELECT DISTINCT r FROM Round r LEFT JOIN FETCH r.ratings rating LEFT JOIN FETCH rating.user "
+            + "WHERE r.game.id = :gameId")
+    List<Round> findAllWithRatingsByGameId(@Param("gameId") String gameId);
+}
@@ -0,0 +1,57 @@
+package ch.uzh.ifi.hase.soprafs23.repository;
+
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Schema Upgrade
+ * ddl-auto=update adds the tables and columns of new entities to a persistent
+ * database (profiles h2file and postgres), but never drops the ones the
+ * entities no longer map. Those which would break writes are dropped here,
+ * after Hibernate updated the schema and before any request is served.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaUpgrade {
+
+    private final Logger log = LoggerFactory.getLogger(SchemaUpgrade.class);
+
+    // ! run on every start, each statement has to be a no-op once applied
+    private static final List<String> STATEMENTS = List.of(
+            // * swaps are counted on GAME_PLAYER, the NOT NULL column fails every new user
+            "ALTER TABLE IF EXISTS USERS DROP COLUMN IF EXISTS EXECUTED_SWAPS",
+            // * replaced by GAME_PLAYER, its foreign keys would keep users from being deleted
+            "DROP TABLE IF EXISTS GAME_PLAYERS");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public SchemaUpgrade(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Drops what previous versions of the entities mapped
+     */
+    @PostConstruct
+    public void upgrade() {
+        // ! connections do not auto-commit (see application.properties)
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String statement : STATEMENTS) {
+                jdbcTemplate.execute(statement);
+            }
+        });
+        log.debug("Schema upgraded");
+    }
+}
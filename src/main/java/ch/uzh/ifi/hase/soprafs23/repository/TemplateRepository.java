@@ -0,0 +1,10 @@
+package ch.uzh.ifi.hase.soprafs23.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Template;
+
+@Repository("templateRepository")
+public interface TemplateRepository extends JpaRepository<Template, String> {
+}
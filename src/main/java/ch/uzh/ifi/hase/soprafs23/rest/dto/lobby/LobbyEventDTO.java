@@ -0,0 +1,85 @@
+package ch.uzh.ifi.hase.soprafs23.rest.dto.lobby;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import ch.uzh.ifi.hase.soprafs23.entity.LobbySetting;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserGetDTO;
+
+/**
+ * Pushed to the members of a lobby. Only the attributes of the event type are
+ * set (e.g. the player for "joined", the game for "gameStarted").
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LobbyEventDTO {
+    private String type;
+
+    private UserGetDTO player;
+
+    private UserGetDTO owner;
+
+    private String name;
+
+    private LobbySetting lobbySetting;
+
+    private String gameId;
+
+    private Date gameStartedAt;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public UserGetDTO getPlayer() {
+        return player;
+    }
+
+    public void setPlayer(UserGetDTO player) {
+        this.player = player;
+    }
+
+    public UserGetDTO getOwner() {
+        return owner;
+    }
+
+    public void setOwner(UserGetDTO owner) {
+        this.owner = owner;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LobbySetting getLobbySetting() {
+        return lobbySetting;
+    }
+
+    public void setLobbySetting(LobbySetting lobbySetting) {
+        this.lobbySetting = lobbySetting;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(String gameId) {
+        this.gameId = gameId;
+    }
+
+    public Date getGameStartedAt() {
+        return gameStartedAt;
+    }
+
+    public void setGameStartedAt(Date gameStartedAt) {
+        this.gameStartedAt = gameStartedAt;
+    }
+}
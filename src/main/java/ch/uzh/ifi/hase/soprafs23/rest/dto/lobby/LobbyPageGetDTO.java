@@ -0,0 +1,30 @@
+package ch.uzh.ifi.hase.soprafs23.rest.dto.lobby;
+
+import java.util.List;
+
+/**
+ * Page of the public lobby browser. The next page is requested with
+ * nextCursor, which is null on the last page.
+ */
+public class LobbyPageGetDTO {
+    private List<LobbySummaryGetDTO> lobbies;
+
+    private Long nextCursor;
+
+    public List<LobbySummaryGetDTO> getLobbies() {
+        return lobbies;
+    }
+
+    public void setLobbies(List<LobbySummaryGetDTO> lobbies) {
+        this.lobbies = lobbies;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+}
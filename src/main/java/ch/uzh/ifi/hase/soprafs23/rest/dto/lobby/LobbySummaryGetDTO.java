@@ -0,0 +1,47 @@
+package ch.uzh.ifi.hase.soprafs23.rest.dto.lobby;
+
+/**
+ * Entry of the public lobby browser, only what is needed to pick a lobby
+ */
+public class LobbySummaryGetDTO {
+    private String code;
+
+    private String name;
+
+    private int playerCount;
+
+    private Integer maxPlayers;
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public void setPlayerCount(int playerCount) {
+        this.playerCount = playerCount;
+    }
+
+    public Integer getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    public void setMaxPlayers(Integer maxPlayers) {
+        this.maxPlayers = maxPlayers;
+    }
+
+}
@@ -0,0 +1,29 @@
+package ch.uzh.ifi.hase.soprafs23.rest.dto.result;
+
+import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserGetDTO;
+
+/**
+ * Player with the ratings of their memes summed over all rounds
+ */
+public class GameResultGetDTO {
+
+    private UserGetDTO user;
+
+    private int score;
+
+    public UserGetDTO getUser() {
+        return user;
+    }
+
+    public void setUser(UserGetDTO user) {
+        this.user = user;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+}
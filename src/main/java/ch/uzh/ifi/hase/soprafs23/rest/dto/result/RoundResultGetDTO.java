@@ -0,0 +1,39 @@
+package ch.uzh.ifi.hase.soprafs23.rest.dto.result;
+
+import ch.uzh.ifi.hase.soprafs23.rest.dto.meme.MemeGetDTO;
+
+/**
+ * Meme of a round with the sum and number of its ratings
+ */
+public class RoundResultGetDTO {
+
+    private MemeGetDTO meme;
+
+    private int score;
+
+    private int ratingCount;
+
+    public MemeGetDTO getMeme() {
+        return meme;
+    }
+
+    public void setMeme(MemeGetDTO meme) {
+        this.meme = meme;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+}
@@ -0,0 +1,18 @@
+package ch.uzh.ifi.hase.soprafs23.rest.dto.user;
+
+/**
+ * Short-lived token to open a stream as "?token={token}", only valid for the
+ * stream urls
+ */
+public class StreamTokenGetDTO {
+
+    private String token;
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+}
@@ -0,0 +1,35 @@
+package ch.uzh.ifi.hase.soprafs23.rest.dto.user;
+
+/**
+ * Created user with the token to send as "Authorization: Bearer {token}"
+ */
+public class UserAuthGetDTO {
+
+    private String name;
+    private String id;
+    private String token;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String uuid) {
+        this.id = uuid;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+}
@@ -1,7 +1,7 @@
 package ch.uzh.ifi.hase.soprafs23.rest.mapper.game;
 
 import ch.uzh.ifi.hase.soprafs23.entity.Game;
-import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.entity.GamePlayer;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.game.GameGetDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserGetDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.mapper.user.UserMapper;
@@ -29,8 +29,8 @@ public class DTOFactory {
         gameGetDTO.setStartedAt(game.getStartedAt());
 
         List<UserGetDTO> playerDTOs = new ArrayList<>();
-        for (User player : game.getPlayers()) {
-            playerDTOs.add(UserMapper.INSTANCE.convertEntityToUserGetDTO(player));
+        for (GamePlayer player : game.getPlayers()) {
+            playerDTOs.add(UserMapper.INSTANCE.convertEntityToUserGetDTO(player.getUser()));
         }
         gameGetDTO.setPlayers(playerDTOs);
 
@@ -1,11 +1,13 @@
 package ch.uzh.ifi.hase.soprafs23.rest.mapper.lobby;
 
 import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
+import ch.uzh.ifi.hase.soprafs23.repository.LobbyRepository.LobbySummary;
 // import ch.uzh.ifi.hase.soprafs23.entity.LobbySetting;
 
 import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyPostDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyPutDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbySummaryGetDTO;
 // import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.PutDTO;
 
 import org.mapstruct.*;
@@ -43,4 +45,6 @@ public interface LobbyMapper {
 
   LobbyGetDTO convertEntityToLobbyGetDTO(Lobby lobby);
 
+  LobbySummaryGetDTO convertLobbySummaryToLobbySummaryGetDTO(LobbySummary lobbySummary);
+
 }
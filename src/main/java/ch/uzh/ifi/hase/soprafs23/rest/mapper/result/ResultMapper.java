@@ -0,0 +1,23 @@
+package ch.uzh.ifi.hase.soprafs23.rest.mapper.result;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+import ch.uzh.ifi.hase.soprafs23.rest.dto.result.GameResultGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.result.RoundResultGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.mapper.meme.MemeMapper;
+import ch.uzh.ifi.hase.soprafs23.rest.mapper.user.UserMapper;
+import ch.uzh.ifi.hase.soprafs23.service.Scoreboard.MemeScore;
+import ch.uzh.ifi.hase.soprafs23.service.Scoreboard.PlayerScore;
+
+@Mapper(uses = { MemeMapper.class, UserMapper.class })
+public interface ResultMapper {
+    ResultMapper INSTANCE = Mappers.getMapper(ResultMapper.class);
+
+    @Mapping(source = "sum", target = "score")
+    @Mapping(source = "count", target = "ratingCount")
+    RoundResultGetDTO convertMemeScoreToRoundResultGetDTO(MemeScore memeScore);
+
+    GameResultGetDTO convertPlayerScoreToGameResultGetDTO(PlayerScore playerScore);
+}
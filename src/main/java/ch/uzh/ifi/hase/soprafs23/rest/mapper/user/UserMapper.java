@@ -4,6 +4,7 @@ import ch.uzh.ifi.hase.soprafs23.entity.User;
 
 import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserPostDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserAuthGetDTO;
 
 import org.mapstruct.*;
 import org.mapstruct.factory.Mappers;
@@ -28,4 +29,7 @@ public interface UserMapper {
 
     UserGetDTO convertEntityToUserGetDTO(User user);
 
+    @Mapping(target = "token", ignore = true)
+    UserAuthGetDTO convertEntityToUserAuthGetDTO(User user);
+
 }
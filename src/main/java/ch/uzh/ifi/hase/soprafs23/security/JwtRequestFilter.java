@@ -1,12 +1,17 @@
 package ch.uzh.ifi.hase.soprafs23.security;
 
 import ch.uzh.ifi.hase.soprafs23.entity.User;
-import ch.uzh.ifi.hase.soprafs23.repository.UserRepository;
-import ch.uzh.ifi.hase.soprafs23.service.UserService;
+import ch.uzh.ifi.hase.soprafs23.logging.LogContext;
+import ch.uzh.ifi.hase.soprafs23.service.JwtTokenService;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import org.slf4j.MDC;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import javax.servlet.FilterChain;
@@ -14,13 +19,28 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
 
+/**
+ * Authenticates requests with the token of the "Authorization: Bearer" header.
+ * The SSE streams also accept a stream token as ?token= parameter, EventSource
+ * can not send headers.
+ */
 public class JwtRequestFilter extends OncePerRequestFilter {
 
-    private final UserService userService;
+    private static final String TOKEN_PARAMETER = "token";
+
+    private static final List<String> STREAM_PATHS = List.of("/games/*/stream", "/lobbies/*/stream");
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
 
-    public JwtRequestFilter(UserRepository userRepository) {
-        this.userService = new UserService(userRepository);
+    private final JwtTokenService jwtTokenService;
+
+    private final PrincipalCache principalCache;
+
+    public JwtRequestFilter(JwtTokenService jwtTokenService, PrincipalCache principalCache) {
+        this.jwtTokenService = jwtTokenService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -29,22 +49,35 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         // look for Bearer auth header
         final String header = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (header == null || !header.startsWith("Bearer ")) {
-            chain.doFilter(request, response);
+            final String streamToken = getStreamToken(request);
+            final DecodedJWT jwt = streamToken == null ? null : jwtTokenService.verifyStreamToken(streamToken);
+            if (jwt == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            // * only opens the stream, not worth caching
+            authenticate(request, response, chain, jwtTokenService.getUser(jwt));
             return;
         }
 
-        final String uuid = header.substring(7);
-        final User user = userService.getById(uuid);
-        // TODO: fix error thrown when uuid not null but invalid (internal server error:
-        // java.util.NoSuchElementException: No value present\n\tat
-        // java.base/java.util.Optional.get(Optional.java:143)\n\tat
-        // ch.uzh.ifi.hase.soprafs23.JwtRequestFilter.doFilterInternal(JwtRequestFilter.java:46))
-        if (uuid == null || user == null) {
-            // validation failed or token expired
-            chain.doFilter(request, response);
-            return;
+        final String token = header.substring(7);
+        User user = principalCache.get(token);
+        if (user == null) {
+            // * user is built from the claims, the database is not involved
+            final DecodedJWT jwt = jwtTokenService.verifyToken(token);
+            if (jwt == null) {
+                // validation failed or token expired
+                chain.doFilter(request, response);
+                return;
+            }
+            user = jwtTokenService.getUser(jwt);
+            principalCache.put(token, user, jwt.getExpiresAtAsInstant().toEpochMilli());
         }
+        authenticate(request, response, chain, user);
+    }
 
+    private void authenticate(final HttpServletRequest request, final HttpServletResponse response,
+            final FilterChain chain, final User user) throws ServletException, IOException {
         // set user details on spring security context
         final UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                 user, null, null);
@@ -52,8 +85,32 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        // continue with authenticated user
-        chain.doFilter(request, response);
+        // continue with authenticated user, logged with the request
+        MDC.put(LogContext.USER_ID, user.getId());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(LogContext.USER_ID);
+        }
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns the token parameter of a stream request
+     *
+     * @param request
+     * @return null if there is none or it is no stream request
+     */
+    private static String getStreamToken(final HttpServletRequest request) {
+        final String token = request.getParameter(TOKEN_PARAMETER);
+        if (token == null || !"GET".equals(request.getMethod())) {
+            return null;
+        }
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String streamPath : STREAM_PATHS) {
+            if (PATH_MATCHER.match(streamPath, path)) {
+                return token;
+            }
+        }
+        return null;
+    }
+}
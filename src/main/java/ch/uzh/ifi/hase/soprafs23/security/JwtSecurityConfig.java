@@ -1,26 +1,35 @@
 package ch.uzh.ifi.hase.soprafs23.security;
 
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
-import ch.uzh.ifi.hase.soprafs23.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs23.service.JwtTokenService;
 
 @Configuration
 @EnableWebSecurity
 public class JwtSecurityConfig {
 
+    private static final String METRICS_ROLE = "METRICS";
+
     @Bean
-    public JwtRequestFilter jwtFilter(@Qualifier("userRepository") UserRepository userRepository) {
-        return new JwtRequestFilter(userRepository);
+    public JwtRequestFilter jwtFilter(JwtTokenService jwtTokenService, PrincipalCache principalCache) {
+        return new JwtRequestFilter(jwtTokenService, principalCache);
     }
 
     @Bean
@@ -29,7 +38,44 @@ public class JwtSecurityConfig {
         return authenticationConfiguration.getAuthenticationManager();
     }
 
+    /**
+     * Actuator endpoints: only the health check is public, the metrics are
+     * read with HTTP Basic (metrics.username, metrics.password) by the
+     * scraper and not with the token of a player.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain configureActuator(final HttpSecurity httpSecurity,
+            @Value("${metrics.username}") String username,
+            @Value("${metrics.password}") String password) throws Exception {
+
+        InMemoryUserDetailsManager scrapers = new InMemoryUserDetailsManager();
+        // ! without a password nobody can read the metrics
+        if (!password.isBlank()) {
+            PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+            scrapers.createUser(User.withUsername(username)
+                    .password(passwordEncoder.encode(password))
+                    .roles(METRICS_ROLE)
+                    .build());
+        }
+        DaoAuthenticationProvider scraperProvider = new DaoAuthenticationProvider();
+        scraperProvider.setUserDetailsService(scrapers);
+
+        return httpSecurity.antMatcher("/actuator/**")
+                .csrf().disable()
+                .authorizeHttpRequests()
+                .antMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                .anyRequest().hasRole(METRICS_ROLE).and()
+                .httpBasic().and()
+                // ! own manager, the global one (see authenticationManager) would be asked after a failed login
+                .authenticationManager(new ProviderManager(scraperProvider))
+                .sessionManagement().sessionCreationPolicy(
+                        SessionCreationPolicy.STATELESS)
+                .and().build();
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain configure(final HttpSecurity httpSecurity, final JwtRequestFilter jwtFilter)
             throws Exception {
 
@@ -0,0 +1,80 @@
+package ch.uzh.ifi.hase.soprafs23.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+
+/**
+ * Principal Cache
+ * Authenticated users by bearer token, so the token of most requests is not
+ * verified and decoded again. Entries expire after the ttl or with the token.
+ * The user is built from the claims of the token alone, so an entry can not
+ * get out of date before that.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Map<String, Entry> principals = new ConcurrentHashMap<>();
+
+    private final long ttl;
+
+    private final int maxSize;
+
+    public PrincipalCache(@Value("${security.principal-cache.ttl:60000}") long ttl,
+            @Value("${security.principal-cache.max-size:10000}") int maxSize) {
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached user of a token
+     *
+     * @param token
+     * @return the user, null if not cached or expired
+     */
+    public User get(String token) {
+        Entry entry = principals.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            principals.remove(token, entry);
+            return null;
+        }
+        return entry.user;
+    }
+
+    /**
+     * Caches the user of a token
+     *
+     * @param token
+     * @param user
+     * @param notAfter expiry of the token (epoch ms)
+     */
+    public void put(String token, User user, long notAfter) {
+        long now = System.currentTimeMillis();
+        if (principals.size() >= maxSize) {
+            principals.values().removeIf(entry -> entry.expiresAt <= now);
+            if (principals.size() >= maxSize) {
+                // ! all entries are alive, start over instead of growing
+                principals.clear();
+            }
+        }
+        principals.put(token, new Entry(user, Math.min(now + ttl, notAfter)));
+    }
+
+    private static class Entry {
+        private final User user;
+
+        private final long expiresAt;
+
+        private Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
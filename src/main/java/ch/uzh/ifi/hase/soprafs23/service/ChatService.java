@@ -3,7 +3,6 @@ package ch.uzh.ifi.hase.soprafs23.service;
 import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs23.entity.Message;
 import ch.uzh.ifi.hase.soprafs23.repository.ChatRepository;
-import ch.uzh.ifi.hase.soprafs23.repository.LobbyRepository;
 import ch.uzh.ifi.hase.soprafs23.repository.UserRepository;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.chat.ChatPostDTO;
 import org.slf4j.Logger;
@@ -21,19 +20,19 @@ public class ChatService {
     private final Logger log = LoggerFactory.getLogger(LobbyService.class);
 
     private final UserRepository userRepository;
-    private final LobbyRepository lobbyRepository;
+    private final LobbyService lobbyService;
     private final ChatRepository chatRepository;
 
-    public ChatService(@Qualifier("lobbyRepository") LobbyRepository lobbyRepository,
+    public ChatService(LobbyService lobbyService,
             @Qualifier("chatRepository") ChatRepository chatRepository,
             @Qualifier("userRepository") UserRepository userRepository) {
-        this.lobbyRepository = lobbyRepository;
+        this.lobbyService = lobbyService;
         this.chatRepository = chatRepository;
         this.userRepository = userRepository;
     }
 
     public List<Message> getProximityChatMessages(String lobbyCode) {
-        return lobbyRepository.findByCode(lobbyCode).getMessages();
+        return lobbyService.getLobbyByCode(lobbyCode).getMessages();
     }
 
     public List<Message> writeNewProximityChatMessage(String lobbyCode, ChatPostDTO chatPostDTO) {
@@ -45,10 +44,9 @@ public class ChatService {
         chatRepository.save(m);
         chatRepository.flush();
 
-        Lobby l = lobbyRepository.findByCode(lobbyCode);
+        Lobby l = lobbyService.getLobbyByCode(lobbyCode);
         l.addMessage(m);
-        lobbyRepository.save(l);
-        lobbyRepository.flush();
+        chatRepository.flush();
 
         log.debug("New chat message written and added to lobby", l);
         return l.getMessages();
@@ -1,55 +1,76 @@
 package ch.uzh.ifi.hase.soprafs23.service;
 
 import ch.uzh.ifi.hase.soprafs23.entity.*;
+import ch.uzh.ifi.hase.soprafs23.event.GameChangedEvent;
+import ch.uzh.ifi.hase.soprafs23.event.PhaseCompletedEvent;
+import ch.uzh.ifi.hase.soprafs23.job.GamePersistenceJob;
+import ch.uzh.ifi.hase.soprafs23.metrics.GameMetrics;
 
 import ch.uzh.ifi.hase.soprafs23.repository.GameRepository;
 import ch.uzh.ifi.hase.soprafs23.repository.MemeRepository;
-import ch.uzh.ifi.hase.soprafs23.repository.TextBoxRepository;
-import ch.uzh.ifi.hase.soprafs23.repository.UserRepository;
-import ch.uzh.ifi.hase.soprafs23.utility.memeapi.IMemeApi;
-import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient;
-import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient.ApiResponse;
+import ch.uzh.ifi.hase.soprafs23.repository.RoundRepository;
+import ch.uzh.ifi.hase.soprafs23.service.Scoreboard.MemeScore;
+import ch.uzh.ifi.hase.soprafs23.service.Scoreboard.PlayerScore;
+import ch.uzh.ifi.hase.soprafs23.stream.GameStream;
 
 import java.util.ArrayList;
 import java.util.Calendar;
 
 import java.util.List;
+import java.util.UUID;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
 
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 @Transactional
 public class GameService {
-    // private final Logger log = LoggerFactory.getLogger(GameService.class);
-
-    private final IMemeApi memeApi = new ImgflipClient();
+    private final Logger log = LoggerFactory.getLogger(GameService.class);
 
     private final LobbyService lobbyService;
+    private final TemplateCatalog templateCatalog;
 
     private final GameRepository gameRepository;
+    private final RoundRepository roundRepository;
     private final MemeRepository memeRepository;
-    private final TextBoxRepository textBoxRepository;
-    private final UserRepository userRepository;
+
+    private final GameStateStore gameStateStore;
+    private final GamePersistenceJob gamePersistenceJob;
+    private final GameStream gameStream;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final GameMetrics gameMetrics;
 
     @PersistenceContext
     private EntityManager entityManager;
 
     public GameService(@Qualifier("gameRepository") GameRepository gameRepository,
-            LobbyService lobbyService, MemeRepository memeRepository, TextBoxRepository textBoxRepository,
-            UserRepository userRepository) {
+            @Qualifier("roundRepository") RoundRepository roundRepository, LobbyService lobbyService, TemplateCatalog templateCatalog, MemeRepository memeRepository,
+            GameStateStore gameStateStore, GamePersistenceJob gamePersistenceJob,
+            GameStream gameStream, ApplicationEventPublisher eventPublisher, GameMetrics gameMetrics) {
         this.gameRepository = gameRepository;
+        this.roundRepository = roundRepository;
         this.memeRepository = memeRepository;
-        this.textBoxRepository = textBoxRepository;
         this.lobbyService = lobbyService;
-        this.userRepository = userRepository;
+        this.templateCatalog = templateCatalog;
+        this.gameStateStore = gameStateStore;
+        this.gamePersistenceJob = gamePersistenceJob;
+        this.gameStream = gameStream;
+        this.eventPublisher = eventPublisher;
+        this.gameMetrics = gameMetrics;
     }
 
     /**
@@ -63,14 +84,8 @@ public class GameService {
         Lobby lobby = lobbyService.getLobbyByCode(lobbyCode);
 
         // set templates
-        ApiResponse apiResponse = memeApi.getTemplates();
-        List<Template> templates = new ArrayList<Template>(apiResponse.data.memes.size());
-        for (var meme : apiResponse.data.memes) {
-            Template template = new Template();
-            template.setImageUrl(meme.url);
-            templates.add(template);
-        }
-        newGame.setTemplates(templates);
+        // * shared with all other games, loaded once by the catalog
+        newGame.setTemplates(new ArrayList<Template>(templateCatalog.getTemplates()));
         newGame.setState(GameState.CREATION);
 
         // set game settings
@@ -86,18 +101,11 @@ public class GameService {
         newGame.setCurrentRound(1);
 
         // initialise players
-        List<User> users = lobby.getPlayers();
-        // shitty fix but other wise error is thrown:
-        // org.hibernate.HibernateException: Found shared references to a collection
-        // ! this currently duplicates the users in the db
-        List<User> players = new ArrayList<User>(users.size());
-        for (var user : users) {
-            User player = new User();
-            player.setId(user.getId());
-            player.setName(user.getName());
-            players.add(player);
+        // * one participation per lobby player, referencing the existing user
+        newGame.setPlayers(new ArrayList<GamePlayer>(lobby.getPlayers().size()));
+        for (User user : lobby.getPlayers()) {
+            newGame.addPlayer(user);
         }
-        newGame.setPlayers(players);
 
         // Add 2 seconds to the current time
         Calendar calendar = Calendar.getInstance();
@@ -109,6 +117,9 @@ public class GameService {
 
         // initialise first round
         Round round = new Round();
+        // ! persist keeps null collections, the live game uses this instance
+        round.setMemes(new ArrayList<Meme>(lobby.getPlayers().size()));
+        round.setRatings(new ArrayList<Rating>());
         round.setOpen(true);
         round.setRoundNumber(1);
         round.setStartedAt(calendar.getTime()); // round starts same time as game
@@ -116,10 +127,13 @@ public class GameService {
 
         save(newGame);
 
+        // * from now on the game is served from memory
+        entityManager.detach(newGame);
+        gameStateStore.put(newGame);
+
         // inform lobby that game has started
         lobbyService.setGameStarted(lobbyCode, newGame.getId(), newGame.getStartedAt());
-
-        // TODO: figure out way to delete lobby
+        log.info("Started game {} with {} players", newGame.getId(), newGame.getPlayers().size());
 
         return newGame;
 
@@ -129,13 +143,21 @@ public class GameService {
      * Returns a game by id
      * 
      * @param gameId
-     * @return
+     * @return snapshot of the game
      */
     public Game getGame(String gameId) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found"));
+        return getLiveGame(gameId).withLock(GameService::snapshot);
+    }
 
-        return game;
+    /**
+     * Subscribes to the changes of a game
+     * 
+     * @param gameId
+     * @return
+     */
+    public SseEmitter subscribe(String gameId) {
+        // subscribe under the lock so no change gets lost in between
+        return getLiveGame(gameId).withLock(gameStream::subscribe);
     }
 
     /**
@@ -145,13 +167,12 @@ public class GameService {
      * @return
      */
     public Template getTemplate(String gameId, User user) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found"));
+        LiveGame liveGame = getLiveGame(gameId);
 
         // TODO: check user has can get more templates depending on lobby rules
         // TODO: update user has gotten template
 
-        return game.getTemplate();
+        return liveGame.withLock(Game::getTemplate);
     }
 
     /**
@@ -161,15 +182,22 @@ public class GameService {
      * @return
      */
     public Template swapTemplate(String gameId, User user) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found"));
-
-        if (user.getExecutedSwaps() < game.getGameSetting().getTemplateSwapLimit()) {
-            user.setExecutedSwaps(user.getExecutedSwaps() + 1);
-            userRepository.save(user);
+        LiveGame liveGame = getLiveGame(gameId);
+
+        // * swaps are counted per game on the participation of the user
+        return liveGame.withLock(game -> {
+            checkRunning(game);
+            GamePlayer player = game.getPlayer(user.getId());
+            if (player == null) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not a player of this game");
+            }
+            if (player.getExecutedSwaps() >= game.getGameSetting().getTemplateSwapLimit()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Swap Limit already reached");
+            }
+            player.setExecutedSwaps(player.getExecutedSwaps() + 1);
+            gamePersistenceJob.updatePlayer(gameId, player);
             return game.getTemplate();
-        }
-        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Swap Limit already reached");
+        });
     }
 
     /**
@@ -180,59 +208,73 @@ public class GameService {
      * @param user
      */
     public void createMeme(String gameId, String templateId, Meme meme, User user) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found"));
+        LiveGame liveGame = getLiveGame(gameId);
 
+        meme.setId(UUID.randomUUID().toString());
         meme.setUser(user);
         for (TextBox t : meme.getTextBoxes()) {
             t.setMeme(meme);
         }
-        Round round = game.getRound();
-
-        // check if round still open
-        /*
-         * TODO: if (!round.isOpen()) {
-         * throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-         * "Round is not open");
-         * }
-         */
-
-        // set user chosen template
-        Template template = game.getTemplateById(templateId);
-        meme.setTemplate(template);
-
-        // add meme to the round
-        round.addMeme(meme);
-        meme.setRound(round);
-        // update round
-        game.setRound(round);
-        memeRepository.save(meme);
-        // perist changes
-        save(game);
 
+        boolean completed = liveGame.withLock(game -> {
+            checkRunning(game);
+            Round round = game.getRound();
+
+            // check if round still open
+            /*
+             * TODO: if (!round.isOpen()) {
+             * throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+             * "Round is not open");
+             * }
+             */
+
+            // ! the unique constraint on round and user backs this check in the database
+            if (round.hasMemeOf(user.getId())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Meme already submitted this round");
+            }
+
+            // set user chosen template
+            Template template = game.getTemplateById(templateId);
+            meme.setTemplate(template);
+
+            // add meme to the round
+            round.addMeme(meme);
+            meme.setRound(round);
+            liveGame.getScoreboard().addMeme(round, meme);
+            // perist changes
+            gamePersistenceJob.insertMeme(gameId, round, meme);
+            eventPublisher.publishEvent(new GameChangedEvent(game, GameChangedEvent.Change.MEME));
+
+            return round.getSubmitedMemes().size() == game.getPlayers().size();
+        });
+        gameMetrics.memeSubmitted();
+        log.debug("Meme submitted, round completed: {}", completed);
+
+        // everyone submitted -> game can move on to the rating phase
+        if (completed) {
+            eventPublisher.publishEvent(new PhaseCompletedEvent(gameId, GameState.CREATION));
+        }
     }
 
+    /**
+     * Returns the memes of the current round
+     * 
+     * @param gameId
+     * @return
+     */
     public List<Meme> getMemes(String gameId) {
-        Game game = gameRepository.findByIdWithRounds(gameId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found"));
-
-        Round round = game.getRound();
-        List<Meme> memes = findMemesByRoundId(round.getId());
-
-        for (Meme meme : memes) {
-            List<TextBox> textBoxes = findTextBoxesByMemeId(meme.getId());
-            meme.setTextBoxes(textBoxes);
-        }
-
-        return memes;
+        return getLiveGame(gameId).withLock(game -> new ArrayList<Meme>(game.getRound().getSubmitedMemes()));
     }
 
+    /**
+     * Returns the stored memes of a round including their text boxes
+     * 
+     * @param roundId
+     * @return
+     */
     public List<Meme> findMemesByRoundId(Long roundId) {
-        return memeRepository.findAllByRound_Id(roundId);
-    }
-
-    public List<TextBox> findTextBoxesByMemeId(String memeId) {
-        return textBoxRepository.findAllByMeme_Id(memeId);
+        // * one statement, instead of one more per meme for its text boxes
+        return memeRepository.findAllWithTextBoxesByRoundId(roundId);
     }
 
     /**
@@ -244,64 +286,149 @@ public class GameService {
      * @param user
      */
     public void createRating(String gameId, String memeId, Rating rating, User user) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found"));
+        LiveGame liveGame = getLiveGame(gameId);
 
         // TODO: check user actually part of game
         // TODO: check user has not already rated meme
         // TODO: user is not meme owner
 
-        Round round = game.getRound();
-        Meme meme = round.getMemeById(memeId);
-        if (meme == null) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Meme not found");
+        boolean completed = liveGame.withLock(game -> {
+            checkRunning(game);
+            Round round = game.getRound();
+            Meme meme = round.getMemeById(memeId);
+            if (meme == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Meme not found");
+            }
+
+            rating.setUser(user);
+            rating.setMeme(meme);
+            rating.setRound(round);
+            round.addRating(rating);
+            liveGame.getScoreboard().addRating(rating);
+
+            // perist changes
+            gamePersistenceJob.insertRating(gameId, round, rating);
+            eventPublisher.publishEvent(new GameChangedEvent(game, GameChangedEvent.Change.RATING));
+
+            return round.getRatings().size() == game.getPlayers().size();
+        });
+        gameMetrics.ratingSubmitted();
+        log.debug("Rating submitted, round completed: {}", completed);
+
+        // everyone rated -> game can move on to the results
+        if (completed) {
+            eventPublisher.publishEvent(new PhaseCompletedEvent(gameId, GameState.RATING));
         }
-
-        rating.setUser(user);
-        rating.setMeme(meme);
-        round.addRating(rating);
-
-        // update round
-        game.setRound(round);
-
-        // perist changes
-        save(game);
     }
 
     /**
-     * Returns a list of ratings from the past round
+     * Returns the memes of the current round with their ratings, best first
      * 
      * @param gameId
      * @return
      */
-    public List<Rating> getRatingsFromRound(String gameId) {
-        // Return a list of players, their score and the meme of the round
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found"));
+    public List<MemeScore> getRoundResults(String gameId) {
+        LiveGame liveGame = getLiveGame(gameId);
+        return liveGame.withLock(game -> liveGame.getScoreboard().getRoundLeaderboard(game.getCurrentRound()));
+    }
 
-        Round round = game.getRound();
+    /**
+     * Returns the players with their score over all rounds, best first
+     * 
+     * @param gameId
+     * @return
+     */
+    public List<PlayerScore> getGameResults(String gameId) {
+        LiveGame liveGame = getLiveGame(gameId);
+        return liveGame.withLock(game -> liveGame.getScoreboard().getGameLeaderboard());
+    }
 
-        return round.getRatings();
+    /**
+     * Loads the games which were still running when the server stopped, they
+     * only advance again once they are scheduled
+     * 
+     * @return ids of the loaded games
+     */
+    public List<String> resumeGames() {
+        List<String> gameIds = gameRepository.findIdsByStateNot(GameState.GAME_RESULTS);
+        for (String gameId : gameIds) {
+            getLiveGame(gameId);
+        }
+        return gameIds;
     }
 
     /**
-     * Returns all ratings from the game
+     * Returns the in-memory game, loads it from the database if it is not in
+     * memory yet
      * 
      * @param gameId
      * @return
      */
-    public List<Rating> getAllRatings(String gameId) {
-        Game game = gameRepository.findById(gameId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found"));
-
-        List<Round> rounds = game.getRounds();
+    private LiveGame getLiveGame(String gameId) {
+        LiveGame liveGame = gameStateStore.get(gameId, this::loadGame);
+        if (liveGame == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Game not found");
+        }
+        return liveGame;
+    }
 
-        List<Rating> allRatings = new ArrayList<Rating>();
+    /**
+     * Checks that a game can still be changed, called under the lock of the
+     * game so the phase does not change in between
+     * 
+     * @param game
+     */
+    private static void checkRunning(Game game) {
+        // ! finished games are served read-only, they might not be in the store
+        if (game.getState() == GameState.GAME_RESULTS) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Game is already finished");
+        }
+    }
 
-        for (Round round : rounds) {
-            allRatings.addAll(round.getRatings());
+    /**
+     * Loads a game including its rounds, memes and ratings and detaches it
+     * 
+     * @param gameId
+     * @return the game, null if it does not exist
+     */
+    private Game loadGame(String gameId) {
+        Game game = gameRepository.findById(gameId).orElse(null);
+        if (game == null) {
+            return null;
         }
-        return allRatings;
+
+        // * one statement per association, independent of the number of rounds,
+        // * memes and ratings. the results initialize the entities of the
+        // * persistence context
+        gameRepository.findWithPlayersById(gameId);
+        gameRepository.findWithTemplatesById(gameId);
+        Hibernate.initialize(game.getRounds());
+        roundRepository.findAllWithMemesByGameId(gameId);
+        memeRepository.findAllWithTextBoxesByGameId(gameId);
+        roundRepository.findAllWithRatingsByGameId(gameId);
+
+        // ! changes to the game are written by the GamePersistenceJob only
+        entityManager.detach(game);
+        return game;
+    }
+
+    /**
+     * Copies the attributes of a game which are changed while it is running
+     * 
+     * @param game
+     * @return
+     */
+    private static Game snapshot(Game game) {
+        Game snapshot = new Game();
+        snapshot.setId(game.getId());
+        snapshot.setState(game.getState());
+        snapshot.setGameSetting(game.getGameSetting());
+        snapshot.setCurrentRound(game.getCurrentRound());
+        snapshot.setStartedAt(game.getStartedAt());
+        snapshot.setTemplates(game.getTemplates());
+        snapshot.setPlayers(game.getPlayers());
+        snapshot.setRounds(game.getRounds() == null ? null : new ArrayList<Round>(game.getRounds()));
+        return snapshot;
     }
 
     /**
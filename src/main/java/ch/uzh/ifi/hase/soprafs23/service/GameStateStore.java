@@ -0,0 +1,80 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+
+/**
+ * Game State Store
+ * Keeps every active game in memory. Reads and writes of running games are
+ * served from here, changes are persisted asynchronously by the
+ * GamePersistenceJob.
+ */
+@Component
+public class GameStateStore {
+
+    private final Map<String, LiveGame> games = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a game to the store
+     *
+     * @param game
+     * @return the live game
+     */
+    public LiveGame put(Game game) {
+        LiveGame liveGame = new LiveGame(game);
+        games.put(game.getId(), liveGame);
+        return liveGame;
+    }
+
+    /**
+     * Returns a game of the store
+     *
+     * @param gameId
+     * @return the live game, null if the game is not in the store
+     */
+    public LiveGame get(String gameId) {
+        return games.get(gameId);
+    }
+
+    /**
+     * Returns a game of the store, loads it if it is not in the store yet.
+     * Finished games are not added again, they were evicted once and nothing
+     * would evict them a second time.
+     *
+     * @param gameId
+     * @param loader returns the game, null if it does not exist
+     * @return the live game, null if the game does not exist
+     */
+    public LiveGame get(String gameId, Function<String, Game> loader) {
+        LiveGame liveGame = games.get(gameId);
+        if (liveGame != null) {
+            return liveGame;
+        }
+
+        // load outside of the map to not block other games
+        Game game = loader.apply(gameId);
+        if (game == null) {
+            return null;
+        }
+        // * served read-only, nothing changes after the game results
+        if (game.getState() == GameState.GAME_RESULTS) {
+            return new LiveGame(game);
+        }
+        return games.computeIfAbsent(gameId, id -> new LiveGame(game));
+    }
+
+    public Collection<LiveGame> getGames() {
+        return games.values();
+    }
+
+    public void remove(String gameId) {
+        games.remove(gameId);
+    }
+}
@@ -1,59 +1,151 @@
 package ch.uzh.ifi.hase.soprafs23.service;
 
-// import java.time.Duration;
-// import java.time.Instant;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 
-// import org.springframework.beans.factory.annotation.Value;
-// import org.springframework.stereotype.Service;
-// import org.slf4j.Logger;
-// import org.slf4j.LoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
 
-// import com.auth0.jwt.JWT;
-// import com.auth0.jwt.JWTVerifier;
-// import com.auth0.jwt.algorithms.Algorithm;
-// import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 
-// import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
 
 /**
  * JwtToken Service
  * This class is the "worker" and responsible for all functionality related to
  * the jwt token, It creates and verifies the token.
+ *
+ * The token carries the id and the name of the user, so requests are
+ * authenticated without loading the user.
+ *
+ * EventSource (SSE) clients can not send headers, they open a stream with a
+ * stream token in the url instead. Stream tokens expire after a minute and
+ * are not accepted anywhere else.
  */
-// @Service
-// public class JwtTokenService {
-// private final Logger log = LoggerFactory.getLogger(JwtTokenService.class);
-
-// private static final Duration JWT_TOKEN_VALIDITY = Duration.ofMinutes(20);
-
-// private final Algorithm hmac512;
-// private final JWTVerifier verifier;
-
-// @Value("${jwt.secret}")
-// final String secret = "";
-
-// public JwtTokenService() {
-// this.hmac512 = Algorithm.HMAC512(secret);
-// this.verifier = JWT.require(this.hmac512).build();
-// }
-
-// public String generateToken(final User userDetails) {
-// final Instant now = Instant.now();
-// return JWT.create()
-// .withSubject(userDetails.getUuid())
-// .withIssuer("https://sopra-fs-21-group-13.google.com")
-// .withIssuedAt(now)
-// .withExpiresAt(now.plusMillis(JWT_TOKEN_VALIDITY.toMillis()))
-// .sign(this.hmac512);
-// }
-
-// public String validateTokenAndGetUUID(final String token) {
-// try {
-// return verifier.verify(token).getSubject();
-// } catch (final JWTVerificationException verificationEx) {
-// log.warn("token invalid: {}", verificationEx.getMessage());
-// return null;
-// }
-// }
-
-// }
+@Service
+public class JwtTokenService {
+    private final Logger log = LoggerFactory.getLogger(JwtTokenService.class);
+
+    private static final String ISSUER = "meme-it-server";
+
+    private static final String NAME_CLAIM = "name";
+
+    private static final String STREAM_AUDIENCE = "stream";
+
+    /** HS512 signs with a 512 bit key, a shorter secret weakens the signature */
+    static final int MIN_SECRET_LENGTH = 64;
+
+    private final Algorithm hmac512;
+
+    /** thread safe, built once */
+    private final JWTVerifier verifier;
+
+    private final JWTVerifier streamVerifier;
+
+    private final long validity;
+
+    private final long streamValidity;
+
+    public JwtTokenService(@Value("${jwt.secret:}") String secret, @Value("${jwt.validity:7200000}") long validity,
+            @Value("${jwt.stream-validity:60000}") long streamValidity) {
+        // ! tokens are trusted without loading the user, a guessable secret lets anyone forge them
+        if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException(
+                    "jwt.secret (JWT_SECRET) must be set to at least " + MIN_SECRET_LENGTH + " bytes");
+        }
+        this.hmac512 = Algorithm.HMAC512(secret);
+        this.verifier = JWT.require(this.hmac512).withIssuer(ISSUER).build();
+        this.streamVerifier = JWT.require(this.hmac512).withIssuer(ISSUER).withAudience(STREAM_AUDIENCE).build();
+        this.validity = validity;
+        this.streamValidity = streamValidity;
+    }
+
+    /**
+     * Creates a signed token for a user
+     *
+     * @param user
+     * @return
+     */
+    public String generateToken(final User user) {
+        final Instant now = Instant.now();
+        return JWT.create()
+                .withSubject(user.getId())
+                .withClaim(NAME_CLAIM, user.getName())
+                .withIssuer(ISSUER)
+                .withIssuedAt(now)
+                .withExpiresAt(now.plusMillis(validity))
+                .sign(this.hmac512);
+    }
+
+    /**
+     * Creates a short-lived token which only opens a stream of the user
+     *
+     * @param user
+     * @return
+     */
+    public String generateStreamToken(final User user) {
+        final Instant now = Instant.now();
+        return JWT.create()
+                .withSubject(user.getId())
+                .withClaim(NAME_CLAIM, user.getName())
+                .withIssuer(ISSUER)
+                .withAudience(STREAM_AUDIENCE)
+                .withIssuedAt(now)
+                .withExpiresAt(now.plusMillis(streamValidity))
+                .sign(this.hmac512);
+    }
+
+    /**
+     * Verifies the signature and the expiry of a token
+     *
+     * @param token
+     * @return the decoded token, null if the token is invalid or a stream token
+     */
+    public DecodedJWT verifyToken(final String token) {
+        DecodedJWT jwt = verify(verifier, token);
+        // ! stream tokens end up in urls (and logs), they never authenticate anything else
+        if (jwt != null && jwt.getAudience() != null && jwt.getAudience().contains(STREAM_AUDIENCE)) {
+            log.debug("token invalid: stream token");
+            return null;
+        }
+        return jwt;
+    }
+
+    /**
+     * Verifies the signature and the expiry of a stream token
+     *
+     * @param token
+     * @return the decoded token, null if the token is invalid or no stream token
+     */
+    public DecodedJWT verifyStreamToken(final String token) {
+        return verify(streamVerifier, token);
+    }
+
+    private DecodedJWT verify(final JWTVerifier jwtVerifier, final String token) {
+        try {
+            return jwtVerifier.verify(token);
+        } catch (final JWTVerificationException verificationEx) {
+            log.debug("token invalid: {}", verificationEx.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the user of a verified token
+     *
+     * @param jwt
+     * @return user with id and name
+     */
+    public User getUser(final DecodedJWT jwt) {
+        User user = new User();
+        user.setId(jwt.getSubject());
+        user.setName(jwt.getClaim(NAME_CLAIM).asString());
+        return user;
+    }
+}
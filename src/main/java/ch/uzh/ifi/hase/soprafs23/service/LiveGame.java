@@ -0,0 +1,49 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+
+/**
+ * A running game held in memory by the {@link GameStateStore}.
+ * The game is the authoritative state of the game, all changes to it (and its
+ * rounds, memes and ratings) have to be done while holding the lock.
+ * The same goes for the scoreboard, which is kept in step with the ratings.
+ */
+public class LiveGame {
+
+    private final Game game;
+
+    private final Scoreboard scoreboard;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public LiveGame(Game game) {
+        this.game = game;
+        this.scoreboard = Scoreboard.of(game);
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public Scoreboard getScoreboard() {
+        return scoreboard;
+    }
+
+    /**
+     * Runs the action while holding the lock of the game
+     *
+     * @param action
+     * @return result of the action
+     */
+    public <T> T withLock(Function<Game, T> action) {
+        lock.lock();
+        try {
+            return action.apply(game);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ch.uzh.ifi.hase.soprafs23.event.LobbyChangedEvent;
+import ch.uzh.ifi.hase.soprafs23.repository.LobbyRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.LobbyRepository.LobbySummary;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyPageGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbySummaryGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.mapper.lobby.LobbyMapper;
+
+/**
+ * Lobby Browser
+ * Lists the public lobbies which can be joined, page by page. Pages are
+ * cached for a short time and dropped as soon as any lobby changes, so the
+ * browser is not queried from the database on every poll.
+ */
+@Component
+public class LobbyBrowser {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /** upper bound of cached pages, e.g. for clients sending random cursors */
+    private static final int MAX_CACHED_PAGES = 1000;
+
+    private final LobbyRepository lobbyRepository;
+
+    private final long cacheTtl;
+
+    private final Map<String, CachedPage> pages = new ConcurrentHashMap<>();
+
+    /** incremented on every change, pages loaded before a change are not cached */
+    private final AtomicLong version = new AtomicLong();
+
+    public LobbyBrowser(@Qualifier("lobbyRepository") LobbyRepository lobbyRepository,
+            @Value("${lobby.browser.cache-ttl:2000}") long cacheTtl) {
+        this.lobbyRepository = lobbyRepository;
+        this.cacheTtl = cacheTtl;
+    }
+
+    /**
+     * Returns a page of public, joinable lobbies
+     *
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param size   number of lobbies, at most MAX_PAGE_SIZE
+     * @return
+     */
+    @Transactional(readOnly = true)
+    public LobbyPageGetDTO getPublicLobbies(Long cursor, int size) {
+        long after = cursor == null ? 0 : cursor;
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        String key = after + ":" + limit;
+        long now = System.currentTimeMillis();
+        CachedPage cached = pages.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.page;
+        }
+
+        long loadedVersion = version.get();
+        LobbyPageGetDTO page = loadPage(after, limit);
+
+        if (pages.size() >= MAX_CACHED_PAGES) {
+            pages.clear();
+        }
+        pages.put(key, new CachedPage(page, now + cacheTtl));
+        if (version.get() != loadedVersion) {
+            // * a lobby changed while loading -> the page may be outdated
+            pages.remove(key);
+        }
+        return page;
+    }
+
+    /**
+     * Drops the cached pages once a lobby change is committed
+     *
+     * @param event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLobbyChanged(LobbyChangedEvent event) {
+        version.incrementAndGet();
+        pages.clear();
+    }
+
+    private LobbyPageGetDTO loadPage(long after, int limit) {
+        // one more than requested to know if there is a next page
+        List<LobbySummary> summaries = lobbyRepository.findPublicLobbies(after, PageRequest.of(0, limit + 1));
+
+        List<LobbySummaryGetDTO> lobbies = new ArrayList<LobbySummaryGetDTO>(limit);
+        for (int i = 0; i < Math.min(limit, summaries.size()); i++) {
+            lobbies.add(LobbyMapper.INSTANCE.convertLobbySummaryToLobbySummaryGetDTO(summaries.get(i)));
+        }
+
+        LobbyPageGetDTO page = new LobbyPageGetDTO();
+        page.setLobbies(lobbies);
+        if (summaries.size() > limit) {
+            page.setNextCursor(summaries.get(limit - 1).getId());
+        }
+        return page;
+    }
+
+    private static class CachedPage {
+        private final LobbyPageGetDTO page;
+
+        private final long expiresAt;
+
+        private CachedPage(LobbyPageGetDTO page, long expiresAt) {
+            this.page = page;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
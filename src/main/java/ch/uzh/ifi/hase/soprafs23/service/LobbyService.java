@@ -3,19 +3,33 @@ package ch.uzh.ifi.hase.soprafs23.service;
 import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs23.entity.LobbySetting;
 import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.event.LobbyChangedEvent;
 import ch.uzh.ifi.hase.soprafs23.repository.LobbyRepository;
+import ch.uzh.ifi.hase.soprafs23.rest.mapper.lobby.LobbyMapper;
+import ch.uzh.ifi.hase.soprafs23.stream.LobbyStream;
+import ch.uzh.ifi.hase.soprafs23.utility.LobbyCodeAllocator;
 import ch.uzh.ifi.hase.soprafs23.utility.NameGenerator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
 
 /**
  * Lobby Service
@@ -34,19 +48,45 @@ public class LobbyService {
 
     // private final UserRepository usersRepository;
 
+    /** share of used codes after which codes get a numeric suffix */
+    private static final double CODE_OCCUPANCY_THRESHOLD = 0.5;
+
     private final NameGenerator nameGenerator = new NameGenerator();
 
-    public LobbyService(@Qualifier("lobbyRepository") LobbyRepository lobbyRepository) {
+    private final LobbyCodeAllocator codeAllocator = new LobbyCodeAllocator(nameGenerator.getAdjectives(),
+            nameGenerator.getNouns(), CODE_OCCUPANCY_THRESHOLD, new Random());
+
+    /** code -> id of the existing lobbies, lookups go by primary key */
+    private final Map<String, Long> lobbyIds = new ConcurrentHashMap<>();
+
+    private final LobbyStream lobbyStream;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public LobbyService(@Qualifier("lobbyRepository") LobbyRepository lobbyRepository, LobbyStream lobbyStream,
+            ApplicationEventPublisher eventPublisher) {
         this.lobbyRepository = lobbyRepository;
         // this.usersRepository = usersRepository;
+        this.lobbyStream = lobbyStream;
+        this.eventPublisher = eventPublisher;
     }
 
-    public List<Lobby> getLobbies() {
-        return this.lobbyRepository.findAll();
+    /**
+     * Marks the codes of the existing lobbies as used
+     */
+    @PostConstruct
+    public void reserveCodes() {
+        for (Object[] codeAndId : lobbyRepository.findAllCodesAndIds()) {
+            String code = (String) codeAndId[0];
+            codeAllocator.reserve(code);
+            lobbyIds.put(code, (Long) codeAndId[1]);
+        }
     }
 
     public Lobby createLobby(Lobby newLobby, User user) {
-        String code = nameGenerator.getReadableId();
+        // * allocator only hands out codes which are not in use
+        String code = codeAllocator.allocate();
+        freeCodeOnRollback(code);
         newLobby.setCode(code);
         newLobby.setOwner(user);
 
@@ -59,9 +99,12 @@ public class LobbyService {
         newLobby = lobbyRepository.save(newLobby);
         lobbyRepository.flush();
 
-        System.out.println("LobbyService: " + newLobby.getId());
+        if (newLobby.getId() != null) {
+            lobbyIds.put(newLobby.getCode(), newLobby.getId());
+        }
 
         log.debug("Created Information for Lobby: {}", newLobby);
+        eventPublisher.publishEvent(new LobbyChangedEvent(LobbyChangedEvent.Type.CREATED, newLobby, null));
         return newLobby;
     }
 
@@ -122,11 +165,29 @@ public class LobbyService {
         }
         lobbyToUpdate.setLobbySetting(newSettings);
         lobbyRepository.save(lobbyToUpdate);
+
+        eventPublisher.publishEvent(new LobbyChangedEvent(LobbyChangedEvent.Type.SETTINGS, lobbyToUpdate, null));
         return lobbyToUpdate;
     }
 
     public Lobby getLobbyByCode(String code) {
-        Lobby lobby = lobbyRepository.findByCode(code);
+        Lobby lobby = null;
+
+        Long id = code == null ? null : lobbyIds.get(code);
+        if (id != null) {
+            lobby = lobbyRepository.findById(id).orElse(null);
+            if (lobby == null) {
+                // creating transaction was rolled back
+                lobbyIds.remove(code, id);
+            }
+        }
+        if (lobby == null) {
+            // * unique index on code, e.g. a delete was rolled back
+            lobby = lobbyRepository.findByCode(code);
+            if (lobby != null && lobby.getId() != null) {
+                lobbyIds.put(code, lobby.getId());
+            }
+        }
 
         if (lobby == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Lobby not found");
@@ -134,12 +195,77 @@ public class LobbyService {
         return lobby;
     }
 
+    /**
+     * Returns the number of open lobbies
+     * 
+     * @return
+     */
+    public int getLobbyCount() {
+        return lobbyIds.size();
+    }
+
     private void checkIfLobbyExists(Lobby lobby) {
-        if (lobbyRepository.findByCode(lobby.getCode()) != null) {
+        // ! database unique constraint is the last line of defence
+        if (lobbyIds.containsKey(lobby.getCode())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Lobby already exists");
         }
     }
 
+    /**
+     * Forgets the code of a deleted lobby once the deletion is committed
+     * 
+     * @param lobby
+     */
+    private void releaseCode(Lobby lobby) {
+        releaseCodes(List.of(lobby.getCode()));
+    }
+
+    /**
+     * Forgets the codes of lobbies deleted in bulk once the deletion is committed
+     * (see RetentionSweeper)
+     * 
+     * @param codes
+     */
+    public void releaseCodes(Collection<String> codes) {
+        Runnable release = () -> {
+            for (String code : codes) {
+                lobbyIds.remove(code);
+                codeAllocator.free(code);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release.run();
+                }
+            });
+        } else {
+            release.run();
+        }
+    }
+
+    /**
+     * Frees the code of a new lobby if its creation is rolled back
+     * 
+     * @param code
+     */
+    private void freeCodeOnRollback(String code) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    lobbyIds.remove(code);
+                    codeAllocator.free(code);
+                }
+            }
+        });
+    }
+
     public Lobby joinLobby(String lobbyCode, User user) {
         Lobby lobby = getLobbyByCode(lobbyCode);
 
@@ -155,7 +281,7 @@ public class LobbyService {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Lobby is full.");
         }
 
-        if (lobby.getKickedPlayers().stream().anyMatch(user1 -> user1.equals(user))) {
+        if (lobby.isKicked(user.getId())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You cannot join again, you've been kicked.");
         }
 
@@ -166,26 +292,22 @@ public class LobbyService {
         lobbyRepository.save(lobby);
         lobbyRepository.flush();
 
+        eventPublisher.publishEvent(new LobbyChangedEvent(LobbyChangedEvent.Type.JOINED, lobby, user));
         return lobby;
     }
 
     public void leaveLobby(String lobbyCode, User user) {
         Lobby lobby = getLobbyByCode(lobbyCode);
-        // "Bad" solution, but lobby.getPlayers().contains(user) doesn't work and this
-        // does
-        boolean found = false;
-        for (int i = 0; i < lobby.getPlayers().size(); i++) {
-            if (lobby.getPlayers().get(i).getId().equals(user.getId())) {
-                found = true;
-            }
-        }
-        if (!lobby.getPlayers().isEmpty() && found) {
+        // * by id, the name of the user in the token may be outdated
+        if (lobby.hasPlayer(user.getId())) {
             // If player is owner
             if (lobby.getOwner().getId().equals(user.getId()) && lobby.getPlayers().size() > 1) {
                 lobby.removePlayer(user);
                 lobby.setOwner(lobby.getPlayers().get(0));
             } else if (lobby.getPlayers().size() == 1) {
                 lobbyRepository.delete(lobby);
+                releaseCode(lobby);
+                eventPublisher.publishEvent(new LobbyChangedEvent(LobbyChangedEvent.Type.CLOSED, lobby, null));
                 return;
             }
             // For other players
@@ -194,6 +316,8 @@ public class LobbyService {
             }
             lobbyRepository.save(lobby);
             lobbyRepository.flush();
+
+            eventPublisher.publishEvent(new LobbyChangedEvent(LobbyChangedEvent.Type.LEFT, lobby, user));
         } else {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You are not in this lobby.");
         }
@@ -213,6 +337,8 @@ public class LobbyService {
         lobbyRepository.save(lobby);
         lobbyRepository.flush();
 
+        eventPublisher.publishEvent(new LobbyChangedEvent(LobbyChangedEvent.Type.KICKED, lobby, userKick));
+
         return lobby;
     }
 
@@ -221,6 +347,9 @@ public class LobbyService {
 
         lobbyRepository.delete(lobby);
         lobbyRepository.flush();
+        releaseCode(lobby);
+
+        eventPublisher.publishEvent(new LobbyChangedEvent(LobbyChangedEvent.Type.CLOSED, lobby, null));
     }
 
     /**
@@ -239,6 +368,20 @@ public class LobbyService {
         // persist changes
         lobbyRepository.save(lobby);
         lobbyRepository.flush();
+
+        eventPublisher.publishEvent(new LobbyChangedEvent(LobbyChangedEvent.Type.GAME_STARTED, lobby, null));
+    }
+
+    /**
+     * Subscribes to the changes of a lobby
+     * 
+     * @param lobbyCode
+     * @return
+     */
+    public SseEmitter subscribe(String lobbyCode) {
+        Lobby lobby = getLobbyByCode(lobbyCode);
+
+        return lobbyStream.subscribe(lobbyCode, () -> LobbyMapper.INSTANCE.convertEntityToLobbyGetDTO(lobby));
     }
 
 }
\ No newline at end of file
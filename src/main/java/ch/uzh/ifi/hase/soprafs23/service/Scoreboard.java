@@ -0,0 +1,193 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GamePlayer;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.Rating;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+
+/**
+ * Scoreboard
+ * Running totals of the ratings of a game: sum and count per meme, the score
+ * of every player per round and over the whole game. Updated with every
+ * rating, so the results never have to walk the ratings.
+ *
+ * Not thread safe, only used while holding the lock of the {@link LiveGame}.
+ */
+public class Scoreboard {
+
+    /** sum and count of the ratings of a meme */
+    private final Map<String, MemeScore> memes = new HashMap<>();
+
+    /** memes (one per player) of each round by round number */
+    private final Map<Integer, List<MemeScore>> rounds = new HashMap<>();
+
+    /** score of each player over the whole game by user id */
+    private final Map<String, PlayerScore> players = new LinkedHashMap<>();
+
+    /**
+     * Builds the scoreboard of a game from its memes and ratings
+     *
+     * @param game
+     * @return
+     */
+    public static Scoreboard of(Game game) {
+        Scoreboard scoreboard = new Scoreboard();
+        if (game.getPlayers() != null) {
+            for (GamePlayer player : game.getPlayers()) {
+                scoreboard.player(player.getUser());
+            }
+        }
+        if (game.getRounds() == null) {
+            return scoreboard;
+        }
+        for (Round round : game.getRounds()) {
+            if (round.getMemes() != null) {
+                for (Meme meme : round.getMemes()) {
+                    scoreboard.addMeme(round, meme);
+                }
+            }
+            if (round.getRatings() != null) {
+                for (Rating rating : round.getRatings()) {
+                    scoreboard.addRating(rating);
+                }
+            }
+        }
+        return scoreboard;
+    }
+
+    /**
+     * Adds a submitted meme without ratings
+     *
+     * @param round
+     * @param meme
+     */
+    public void addMeme(Round round, Meme meme) {
+        MemeScore memeScore = new MemeScore(meme);
+        memes.put(meme.getId(), memeScore);
+        rounds.computeIfAbsent(round.getRoundNumber(), roundNumber -> new ArrayList<>()).add(memeScore);
+        player(meme.getUser());
+    }
+
+    /**
+     * Adds a rating to its meme and the author of the meme
+     *
+     * @param rating
+     */
+    public void addRating(Rating rating) {
+        MemeScore memeScore = memes.get(rating.getMeme().getId());
+        if (memeScore == null) {
+            return;
+        }
+        memeScore.sum += rating.getRating();
+        memeScore.count++;
+        player(memeScore.meme.getUser()).score += rating.getRating();
+    }
+
+    /**
+     * Returns the memes of a round, best first
+     *
+     * @param roundNumber
+     * @return copies of the scores
+     */
+    public List<MemeScore> getRoundLeaderboard(int roundNumber) {
+        List<MemeScore> leaderboard = new ArrayList<>();
+        for (MemeScore memeScore : rounds.getOrDefault(roundNumber, List.of())) {
+            leaderboard.add(memeScore.copy());
+        }
+        leaderboard.sort(Comparator.comparingInt(MemeScore::getSum).reversed());
+        return leaderboard;
+    }
+
+    /**
+     * Returns the players of the game, best first
+     *
+     * @return copies of the scores
+     */
+    public List<PlayerScore> getGameLeaderboard() {
+        List<PlayerScore> leaderboard = new ArrayList<>(players.size());
+        for (PlayerScore playerScore : players.values()) {
+            leaderboard.add(playerScore.copy());
+        }
+        leaderboard.sort(Comparator.comparingInt(PlayerScore::getScore).reversed());
+        return leaderboard;
+    }
+
+    /**
+     * @param userId
+     * @return score of the player over the whole game, 0 if never rated
+     */
+    public int getScore(String userId) {
+        PlayerScore playerScore = players.get(userId);
+        return playerScore == null ? 0 : playerScore.score;
+    }
+
+    private PlayerScore player(User user) {
+        return players.computeIfAbsent(user.getId(), id -> new PlayerScore(user));
+    }
+
+    /** Ratings of a meme */
+    public static class MemeScore {
+        private final Meme meme;
+
+        private int sum;
+
+        private int count;
+
+        private MemeScore(Meme meme) {
+            this.meme = meme;
+        }
+
+        private MemeScore copy() {
+            MemeScore copy = new MemeScore(meme);
+            copy.sum = sum;
+            copy.count = count;
+            return copy;
+        }
+
+        public Meme getMeme() {
+            return meme;
+        }
+
+        public int getSum() {
+            return sum;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    /** Score of a player */
+    public static class PlayerScore {
+        private final User user;
+
+        private int score;
+
+        private PlayerScore(User user) {
+            this.user = user;
+        }
+
+        private PlayerScore copy() {
+            PlayerScore copy = new PlayerScore(user);
+            copy.score = score;
+            return copy;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+}
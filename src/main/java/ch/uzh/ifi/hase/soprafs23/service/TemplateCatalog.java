@@ -0,0 +1,196 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Template;
+import ch.uzh.ifi.hase.soprafs23.repository.TemplateRepository;
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.IMemeApi;
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient.ApiResponse;
+
+/**
+ * Template Catalog
+ * Process wide list of the meme templates. The templates are fetched from the
+ * meme api at startup and refreshed in the background, games reference the
+ * shared template rows instead of fetching and copying them.
+ *
+ * If the meme api fails, the last loaded templates are kept. Until the first
+ * load succeeded, the templates of the bundled snapshot are served, requests
+ * never wait for the meme api.
+ */
+@Component
+public class TemplateCatalog {
+
+    private final Logger log = LoggerFactory.getLogger(TemplateCatalog.class);
+
+    private final IMemeApi memeApi;
+
+    private final IMemeApi snapshot;
+
+    private final TemplateRepository templateRepository;
+
+    private final long refreshInterval;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "template-catalog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** last good list of templates, never modified */
+    private volatile List<Template> templates = Collections.emptyList();
+
+    // * guards loading the bundled snapshot, refresh() holds its own lock while fetching
+    private final Object snapshotLock = new Object();
+
+    public TemplateCatalog(@Qualifier("memeApi") IMemeApi memeApi, @Qualifier("templateSnapshot") IMemeApi snapshot,
+            @Qualifier("templateRepository") TemplateRepository templateRepository,
+            @Value("${templates.refresh-interval:3600000}") long refreshInterval) {
+        this.memeApi = memeApi;
+        this.snapshot = snapshot;
+        this.templateRepository = templateRepository;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        // * first load runs right away, without delaying the startup
+        executor.scheduleWithFixedDelay(this::refresh, 0, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the current templates
+     *
+     * @return unmodifiable list of templates
+     * @throws ResponseStatusException if no templates could be loaded yet
+     */
+    public List<Template> getTemplates() {
+        List<Template> current = templates;
+        if (current.isEmpty()) {
+            // startup load failed or is still running -> bundled templates until it succeeds
+            current = loadSnapshot();
+        }
+        if (current.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Templates not available");
+        }
+        return current;
+    }
+
+    /**
+     * Serves the templates of the bundled snapshot and retries the meme api in
+     * the background
+     *
+     * @return the current templates, empty if the snapshot is not readable
+     */
+    private List<Template> loadSnapshot() {
+        synchronized (snapshotLock) {
+            if (!templates.isEmpty()) {
+                // loaded by another request or the refresh meanwhile
+                return templates;
+            }
+            try {
+                List<Template> loaded = store(snapshot.getTemplates());
+                if (loaded.isEmpty()) {
+                    log.error("Template snapshot has no templates");
+                    return loaded;
+                }
+                templates = loaded;
+                log.warn("Serving {} templates of the snapshot until the meme api answers", loaded.size());
+            } catch (RuntimeException e) {
+                log.error("Unable to load the template snapshot", e);
+                return Collections.emptyList();
+            }
+        }
+        try {
+            executor.execute(this::refresh);
+        } catch (RejectedExecutionException e) {
+            // shut down
+        }
+        return templates;
+    }
+
+    /**
+     * Loads the templates from the meme api and stores new or changed ones
+     *
+     * @return true if the templates were refreshed
+     */
+    synchronized boolean refresh() {
+        try {
+            List<Template> loaded = store(memeApi.getTemplates());
+            if (loaded.isEmpty()) {
+                log.warn("Meme api returned no templates, keeping {} templates", templates.size());
+                return false;
+            }
+            templates = loaded;
+            return true;
+        } catch (RuntimeException e) {
+            // keep serving the last good templates
+            log.error("Unable to refresh templates, keeping {} templates", templates.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Stores the new or changed templates of a meme api response
+     *
+     * @param apiResponse
+     * @return unmodifiable list of the templates, empty if the response has none
+     */
+    private List<Template> store(ApiResponse apiResponse) {
+        if (apiResponse == null || apiResponse.data == null || apiResponse.data.memes == null
+                || apiResponse.data.memes.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Template> loaded = new ArrayList<Template>(apiResponse.data.memes.size());
+        for (var meme : apiResponse.data.memes) {
+            Template template = new Template();
+            template.setId(meme.id);
+            template.setImageUrl(meme.url);
+            loaded.add(template);
+        }
+
+        // only write templates which are new or changed
+        Map<String, Template> stored = templateRepository
+                .findAllById(loaded.stream().map(Template::getId).collect(Collectors.toList()))
+                .stream().collect(Collectors.toMap(Template::getId, Function.identity()));
+        List<Template> changed = new ArrayList<Template>();
+        for (Template template : loaded) {
+            Template storedTemplate = stored.get(template.getId());
+            if (storedTemplate == null || !Objects.equals(storedTemplate.getImageUrl(), template.getImageUrl())) {
+                changed.add(template);
+            }
+        }
+        if (!changed.isEmpty()) {
+            templateRepository.saveAll(changed);
+        }
+
+        log.info("Loaded {} templates ({} new or changed)", loaded.size(), changed.size());
+        return Collections.unmodifiableList(loaded);
+    }
+}
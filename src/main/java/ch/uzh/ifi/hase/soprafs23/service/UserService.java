@@ -9,6 +9,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
+
 /**
  * User Service
  * This class is the "worker" and responsible for all functionality related to
@@ -28,6 +30,7 @@ public class UserService {
 
     public User createUser(User newUser) {
         log.debug("To be created User: {}", newUser);
+        newUser.setCreatedAt(new Date());
         // saves the given entity but data is only persisted in the database once
         // flush() is called
         newUser = userRepository.save(newUser);
@@ -0,0 +1,72 @@
+package ch.uzh.ifi.hase.soprafs23.stream;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.event.GameChangedEvent;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.game.GameGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.mapper.game.GameMapper;
+
+/**
+ * Game Stream
+ * Pushes the state of a game to its players instead of them polling
+ * GET /games/{gameId}. Every change is sent as a GameGetDTO, the event name
+ * tells what changed ("state", "meme" or "rating").
+ */
+@Component
+public class GameStream {
+
+    private final SseBroadcaster broadcaster;
+
+    public GameStream(ObjectMapper objectMapper, @Value("${game.stream.timeout:1800000}") long timeout,
+            @Value("${game.stream.pool-size:4}") int poolSize,
+            @Value("${game.stream.max-pending:32}") int maxPending) {
+        this.broadcaster = new SseBroadcaster("game-stream", objectMapper, timeout, poolSize, maxPending);
+    }
+
+    /**
+     * Subscribes to the changes of a game
+     *
+     * @param game current state, sent right away
+     * @return
+     */
+    public SseEmitter subscribe(Game game) {
+        return broadcaster.subscribe(game.getId(), GameChangedEvent.Change.STATE.getEventName(),
+                () -> GameMapper.INSTANCE.convertEntityToGameGetDTO(game));
+    }
+
+    /**
+     * Converts the game while the publisher still holds its lock, sending
+     * happens asynchronously
+     *
+     * @param event
+     */
+    @EventListener
+    public void onGameChanged(GameChangedEvent event) {
+        Game game = event.getGame();
+        if (!broadcaster.hasSubscribers(game.getId())) {
+            return;
+        }
+
+        GameGetDTO gameGetDTO = GameMapper.INSTANCE.convertEntityToGameGetDTO(game);
+        broadcaster.broadcast(game.getId(), event.getChange().getEventName(), gameGetDTO);
+
+        // nothing changes after the game results
+        if (game.getState() == GameState.GAME_RESULTS) {
+            broadcaster.close(game.getId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        broadcaster.shutdown();
+    }
+}
@@ -0,0 +1,104 @@
+package ch.uzh.ifi.hase.soprafs23.stream;
+
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
+import ch.uzh.ifi.hase.soprafs23.event.LobbyChangedEvent;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyEventDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.mapper.user.UserMapper;
+
+/**
+ * Lobby Stream
+ * Pushes changes of a lobby to its members instead of them polling
+ * GET /lobbies/{lobbyCode}. Subscribers get the full lobby once ("lobby"),
+ * afterwards only compact LobbyEventDTOs named after the change.
+ */
+@Component
+public class LobbyStream {
+
+    private static final String LOBBY_EVENT = "lobby";
+
+    private final SseBroadcaster broadcaster;
+
+    public LobbyStream(ObjectMapper objectMapper, @Value("${lobby.stream.timeout:1800000}") long timeout,
+            @Value("${lobby.stream.pool-size:4}") int poolSize,
+            @Value("${lobby.stream.max-pending:32}") int maxPending) {
+        this.broadcaster = new SseBroadcaster("lobby-stream", objectMapper, timeout, poolSize, maxPending);
+    }
+
+    /**
+     * Subscribes to the changes of a lobby
+     *
+     * @param lobbyCode
+     * @param lobby     current state of the lobby
+     * @return
+     */
+    public SseEmitter subscribe(String lobbyCode, Supplier<LobbyGetDTO> lobby) {
+        return broadcaster.subscribe(lobbyCode, LOBBY_EVENT, lobby);
+    }
+
+    /**
+     * Sends the change once it is committed
+     *
+     * @param event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLobbyChanged(LobbyChangedEvent event) {
+        Lobby lobby = event.getLobby();
+        if (!broadcaster.hasSubscribers(lobby.getCode())) {
+            return;
+        }
+
+        broadcaster.broadcast(lobby.getCode(), event.getType().getEventName(), convertToLobbyEventDTO(event));
+
+        if (event.getType() == LobbyChangedEvent.Type.CLOSED) {
+            broadcaster.close(lobby.getCode());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        broadcaster.shutdown();
+    }
+
+    private static LobbyEventDTO convertToLobbyEventDTO(LobbyChangedEvent event) {
+        Lobby lobby = event.getLobby();
+
+        LobbyEventDTO lobbyEventDTO = new LobbyEventDTO();
+        lobbyEventDTO.setType(event.getType().getEventName());
+
+        switch (event.getType()) {
+            case JOINED:
+            case KICKED:
+                lobbyEventDTO.setPlayer(UserMapper.INSTANCE.convertEntityToUserGetDTO(event.getPlayer()));
+                break;
+            case LEFT:
+                // owner changes if the owner left
+                lobbyEventDTO.setPlayer(UserMapper.INSTANCE.convertEntityToUserGetDTO(event.getPlayer()));
+                lobbyEventDTO.setOwner(UserMapper.INSTANCE.convertEntityToUserGetDTO(lobby.getOwner()));
+                break;
+            case SETTINGS:
+                lobbyEventDTO.setName(lobby.getName());
+                lobbyEventDTO.setOwner(UserMapper.INSTANCE.convertEntityToUserGetDTO(lobby.getOwner()));
+                lobbyEventDTO.setLobbySetting(lobby.getLobbySetting());
+                break;
+            case GAME_STARTED:
+                lobbyEventDTO.setGameId(lobby.getGameId());
+                lobbyEventDTO.setGameStartedAt(lobby.getGameStartedAt());
+                break;
+            default:
+                break;
+        }
+        return lobbyEventDTO;
+    }
+}
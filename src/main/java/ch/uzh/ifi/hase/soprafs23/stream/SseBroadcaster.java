@@ -0,0 +1,231 @@
+package ch.uzh.ifi.hase.soprafs23.stream;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * SSE Broadcaster
+ * Keeps the server-sent event subscriptions of a set of channels (e.g. one
+ * per game). A payload is serialized once per broadcast and the same JSON is
+ * written to every subscriber of the channel.
+ *
+ * Writes happen on a small pool of sending threads, so a slow client never
+ * blocks the thread publishing the change. Every subscriber has its own queue
+ * of events, sent in order by one thread at a time. A client which falls
+ * more than maxPending events behind is dropped instead of delaying anyone
+ * else, it resubscribes and gets the current state.
+ */
+public class SseBroadcaster {
+
+    private final Logger log = LoggerFactory.getLogger(SseBroadcaster.class);
+
+    private final Map<String, List<Subscriber>> channels = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService executor;
+
+    private final long timeout;
+
+    private final int maxPending;
+
+    /**
+     * @param name         prefix of the sending threads
+     * @param objectMapper
+     * @param timeout      time (millis) after which a subscription is closed
+     * @param poolSize     number of sending threads
+     * @param maxPending   events queued for a subscriber before it is dropped
+     */
+    public SseBroadcaster(String name, ObjectMapper objectMapper, long timeout, int poolSize, int maxPending) {
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.maxPending = maxPending;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Subscribes to a channel
+     *
+     * @param channel
+     * @param eventName name of the initial event
+     * @param initial   sent to the new subscriber only, taken once the
+     *                  subscriber receives broadcasts so no change is missed
+     * @return the emitter to be returned by the controller
+     */
+    public SseEmitter subscribe(String channel, String eventName, Supplier<?> initial) {
+        return subscribe(channel, new SseEmitter(timeout), eventName, initial);
+    }
+
+    SseEmitter subscribe(String channel, SseEmitter emitter, String eventName, Supplier<?> initial) {
+        Subscriber subscriber = new Subscriber(channel, emitter);
+        channels.compute(channel, (key, subscribers) -> {
+            List<Subscriber> list = subscribers == null ? new CopyOnWriteArrayList<>() : subscribers;
+            list.add(subscriber);
+            return list;
+        });
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> remove(subscriber));
+
+        String json = serialize(initial.get());
+        subscriber.enqueue(() -> subscriber.send(eventName, json));
+        return emitter;
+    }
+
+    /**
+     * Returns true if anyone is subscribed to the channel
+     *
+     * @param channel
+     * @return
+     */
+    public boolean hasSubscribers(String channel) {
+        List<Subscriber> subscribers = channels.get(channel);
+        return subscribers != null && !subscribers.isEmpty();
+    }
+
+    /**
+     * Sends an event to all subscribers of a channel
+     *
+     * @param channel
+     * @param eventName
+     * @param payload   serialized to JSON once
+     */
+    public void broadcast(String channel, String eventName, Object payload) {
+        List<Subscriber> subscribers = channels.get(channel);
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+
+        String json = serialize(payload);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(() -> subscriber.send(eventName, json));
+        }
+    }
+
+    /**
+     * Closes all subscriptions of a channel, after their pending events were
+     * sent
+     *
+     * @param channel
+     */
+    public void close(String channel) {
+        List<Subscriber> subscribers = channels.remove(channel);
+        if (subscribers != null) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(subscriber.emitter::complete);
+            }
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        channels.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        channels.clear();
+    }
+
+    private void remove(Subscriber subscriber) {
+        channels.computeIfPresent(subscriber.channel, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private String serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.error("Unable to serialize {}", payload.getClass().getSimpleName(), e);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A subscription and the events not yet written to it
+     */
+    private class Subscriber {
+        private final String channel;
+
+        private final SseEmitter emitter;
+
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        // * true while a thread drains the queue, keeps the events in order
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(String channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Runnable task) {
+            if (size.incrementAndGet() > maxPending) {
+                log.debug("Dropped slow subscriber of {}", channel);
+                drop();
+                return;
+            }
+            pending.add(task);
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // shut down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                Runnable task;
+                while ((task = pending.poll()) != null) {
+                    size.decrementAndGet();
+                    task.run();
+                }
+                draining.set(false);
+                // ! an event may have been added after the last poll
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        void send(String eventName, String json) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(json, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                // client is gone
+                remove(this);
+            }
+        }
+
+        private void drop() {
+            remove(this);
+            pending.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package ch.uzh.ifi.hase.soprafs23.utility;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Lobby Code Allocator
+ * Hands out readable lobby codes ("adjective-noun") which are not in use.
+ * Every adjective × noun pair is a bit in a bitset, so allocating and freeing
+ * a code never touches the database.
+ *
+ * Once the used share of the codes passes the threshold, a new generation of
+ * codes with a numeric suffix ("adjective-noun-2") is opened. This keeps the
+ * occupancy of the generation allocated from below the threshold, so a free
+ * code is found after a few random probes.
+ */
+public class LobbyCodeAllocator {
+
+    private final List<String> adjectives;
+
+    private final List<String> nouns;
+
+    private final Map<String, Integer> adjectiveIndex = new HashMap<>();
+
+    private final Map<String, Integer> nounIndex = new HashMap<>();
+
+    private final int size;
+
+    private final int limit;
+
+    private final Random random;
+
+    /** one bitset per generation, bit = adjective index * nouns + noun index */
+    private final List<BitSet> generations = new ArrayList<>();
+
+    private final List<Integer> used = new ArrayList<>();
+
+    /** generation new codes are allocated from */
+    private int current = 0;
+
+    /**
+     * @param adjectives
+     * @param nouns      must not contain "-"
+     * @param threshold  share of used codes (0-1) after which the next
+     *                   generation is used
+     * @param random
+     */
+    public LobbyCodeAllocator(List<String> adjectives, List<String> nouns, double threshold, Random random) {
+        // * duplicates would map different bits to the same code
+        this.adjectives = new ArrayList<>(new LinkedHashSet<>(adjectives));
+        this.nouns = new ArrayList<>(new LinkedHashSet<>(nouns));
+        for (int i = 0; i < this.adjectives.size(); i++) {
+            adjectiveIndex.put(this.adjectives.get(i), i);
+        }
+        for (int i = 0; i < this.nouns.size(); i++) {
+            nounIndex.put(this.nouns.get(i), i);
+        }
+        this.size = this.adjectives.size() * this.nouns.size();
+        this.limit = Math.max(1, (int) (size * threshold));
+        this.random = random;
+    }
+
+    /**
+     * Returns a code which is not in use and marks it as used
+     *
+     * @return
+     */
+    public synchronized String allocate() {
+        while (used(current) >= limit) {
+            current++;
+        }
+        BitSet bits = generation(current);
+
+        // occupancy is below the threshold -> expected to find a free bit quickly
+        int bit = random.nextInt(size);
+        while (bits.get(bit)) {
+            bit = random.nextInt(size);
+        }
+
+        bits.set(bit);
+        used.set(current, used(current) + 1);
+        return toCode(current, bit);
+    }
+
+    /**
+     * Marks a code as used, e.g. the codes of existing lobbies at startup
+     *
+     * @param code
+     * @return false if the code is not one of the allocator or already used
+     */
+    public synchronized boolean reserve(String code) {
+        long position = parse(code);
+        if (position < 0) {
+            return false;
+        }
+        int gen = (int) (position / size);
+        int bit = (int) (position % size);
+
+        BitSet bits = generation(gen);
+        if (bits.get(bit)) {
+            return false;
+        }
+        bits.set(bit);
+        used.set(gen, used(gen) + 1);
+        return true;
+    }
+
+    /**
+     * Frees a code so it can be handed out again
+     *
+     * @param code
+     */
+    public synchronized void free(String code) {
+        long position = parse(code);
+        if (position < 0) {
+            return;
+        }
+        int gen = (int) (position / size);
+        int bit = (int) (position % size);
+        if (gen >= generations.size() || !generations.get(gen).get(bit)) {
+            return;
+        }
+
+        generations.get(gen).clear(bit);
+        used.set(gen, used(gen) - 1);
+
+        // prefer the shorter codes again once there is room
+        if (gen < current && used(gen) < limit) {
+            current = gen;
+        }
+    }
+
+    /**
+     * Returns true if the code is currently in use
+     *
+     * @param code
+     * @return
+     */
+    public synchronized boolean isUsed(String code) {
+        long position = parse(code);
+        if (position < 0) {
+            return false;
+        }
+        int gen = (int) (position / size);
+        return gen < generations.size() && generations.get(gen).get((int) (position % size));
+    }
+
+    private BitSet generation(int gen) {
+        while (generations.size() <= gen) {
+            generations.add(new BitSet(size));
+            used.add(0);
+        }
+        return generations.get(gen);
+    }
+
+    private int used(int gen) {
+        return gen < used.size() ? used.get(gen) : 0;
+    }
+
+    private String toCode(int gen, int bit) {
+        String code = adjectives.get(bit / nouns.size()) + "-" + nouns.get(bit % nouns.size());
+        return gen == 0 ? code : code + "-" + (gen + 1);
+    }
+
+    /**
+     * @return generation * size + bit, -1 if the code is not one of the allocator
+     */
+    private long parse(String code) {
+        if (code == null) {
+            return -1;
+        }
+
+        int gen = 0;
+        String name = code;
+        int last = name.lastIndexOf('-');
+        if (last < 0) {
+            return -1;
+        }
+        // numeric suffix -> later generation
+        String suffix = name.substring(last + 1);
+        if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+            try {
+                gen = Integer.parseInt(suffix) - 1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+            if (gen < 1) {
+                return -1;
+            }
+            name = name.substring(0, last);
+            last = name.lastIndexOf('-');
+            if (last < 0) {
+                return -1;
+            }
+        }
+
+        // nouns never contain "-", adjectives may
+        Integer adjective = adjectiveIndex.get(name.substring(0, last));
+        Integer noun = nounIndex.get(name.substring(last + 1));
+        if (adjective == null || noun == null) {
+            return -1;
+        }
+        return (long) gen * size + (long) adjective * nouns.size() + noun;
+    }
+}
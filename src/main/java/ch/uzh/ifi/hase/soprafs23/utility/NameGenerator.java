@@ -12,6 +12,14 @@ public class NameGenerator {
                 + nouns.get(random.nextInt(nouns.size()));
     }
 
+    public List<String> getAdjectives() {
+        return adjectives;
+    }
+
+    public List<String> getNouns() {
+        return nouns;
+    }
+
     private List<String> adjectives = Arrays.asList(new String[] {
             "abandoned",
             "able",
@@ -0,0 +1,100 @@
+package ch.uzh.ifi.hase.soprafs23.utility.memeapi;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient.ApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Asks the providers in order and returns the first response with templates.
+ * A provider which fails, answers without templates or does not answer within
+ * the timeout is skipped.
+ *
+ * The time every provider takes is recorded as memeapi.fetch (provider,
+ * outcome).
+ */
+public class CompositeMemeApi implements IMemeApi {
+    private final Logger log = LoggerFactory.getLogger(CompositeMemeApi.class);
+
+    private final List<IMemeApi> providers;
+
+    private final long timeout;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "meme-api");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param providers in order of preference
+     * @param timeout   time (millis) a provider has to answer
+     */
+    public CompositeMemeApi(List<IMemeApi> providers, long timeout) {
+        this(providers, timeout, Metrics.globalRegistry);
+    }
+
+    /**
+     * @param providers     in order of preference
+     * @param timeout       time (millis) a provider has to answer
+     * @param meterRegistry
+     */
+    public CompositeMemeApi(List<IMemeApi> providers, long timeout, MeterRegistry meterRegistry) {
+        this.providers = providers;
+        this.timeout = timeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ApiResponse getTemplates() {
+        for (IMemeApi provider : providers) {
+            String name = provider.getClass().getSimpleName();
+            long start = System.nanoTime();
+            String outcome = "error";
+            Future<ApiResponse> future = executor.submit(provider::getTemplates);
+            try {
+                ApiResponse apiResponse = future.get(timeout, TimeUnit.MILLISECONDS);
+                if (apiResponse != null && apiResponse.data != null && apiResponse.data.memes != null
+                        && !apiResponse.data.memes.isEmpty()) {
+                    outcome = "success";
+                    return apiResponse;
+                }
+                outcome = "empty";
+                log.warn("{} returned no templates", name);
+            } catch (TimeoutException e) {
+                outcome = "timeout";
+                future.cancel(true);
+                log.warn("{} did not answer within {} ms", name, timeout);
+            } catch (ExecutionException e) {
+                log.warn("{} failed: {}", name, e.getCause().toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } finally {
+                Timer.builder("memeapi.fetch")
+                        .description("Time a meme api took to answer with the templates")
+                        .tag("provider", name)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        return null;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
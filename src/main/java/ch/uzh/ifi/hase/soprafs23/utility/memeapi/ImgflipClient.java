@@ -1,10 +1,10 @@
 package ch.uzh.ifi.hase.soprafs23.utility.memeapi;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.List;
-import java.util.Scanner;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,13 +17,24 @@ public class ImgflipClient implements IMemeApi {
 
     private static final String ENDPOINT = "https://api.imgflip.com";
 
-    public ApiResponse getTemplates() {
+    // * thread safe, reused for every request
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** connect and read timeout in millis */
+    private final int timeout;
 
-        Scanner scanner = null;
+    public ImgflipClient(int timeout) {
+        this.timeout = timeout;
+    }
+
+    public ApiResponse getTemplates() {
+        HttpURLConnection conn = null;
         try {
             URL url = new URL(ENDPOINT + "/get_memes");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn = (HttpURLConnection) url.openConnection();
             conn.setRequestMethod("GET");
+            conn.setConnectTimeout(timeout);
+            conn.setReadTimeout(timeout);
             conn.connect();
 
             int responseCode = conn.getResponseCode();
@@ -31,21 +42,16 @@ public class ImgflipClient implements IMemeApi {
                 throw new RuntimeException("Failed with HTTP error code: " + responseCode);
             }
 
-            scanner = new Scanner(url.openStream());
-            String response = scanner.useDelimiter("\\A").next();
-
-            ObjectMapper mapper = new ObjectMapper();
-            ApiResponse apiResponse = mapper.readValue(response, ApiResponse.class);
-
-            scanner.close();
-
-            return apiResponse;
+            // read the body of the same connection
+            try (InputStream body = conn.getInputStream()) {
+                return MAPPER.readValue(body, ApiResponse.class);
+            }
 
         } catch (IOException e) {
             log.error(e.toString());
         } finally {
-            if (scanner != null)
-                scanner.close();
+            if (conn != null)
+                conn.disconnect();
         }
 
         return null;
@@ -0,0 +1,51 @@
+package ch.uzh.ifi.hase.soprafs23.utility.memeapi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sets up the meme api from the configured providers
+ * - imgflip: https://api.imgflip.com
+ * - snapshot: template snapshot file, see memeapi.snapshot
+ */
+@Configuration
+public class MemeApiConfig {
+
+    /**
+     * Bundled templates, served by the TemplateCatalog until the configured
+     * providers answer
+     */
+    @Bean
+    public SnapshotMemeApi templateSnapshot(
+            @Value("${memeapi.snapshot:classpath:memeapi/templates-v1.json}") Resource snapshot) {
+        return new SnapshotMemeApi(snapshot);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public CompositeMemeApi memeApi(@Value("${memeapi.providers:imgflip,snapshot}") List<String> providerNames,
+            @Value("${memeapi.timeout:5000}") long timeout,
+            SnapshotMemeApi templateSnapshot,
+            MeterRegistry meterRegistry) {
+        List<IMemeApi> providers = new ArrayList<IMemeApi>(providerNames.size());
+        for (String providerName : providerNames) {
+            switch (providerName.trim()) {
+                case "imgflip":
+                    providers.add(new ImgflipClient((int) timeout));
+                    break;
+                case "snapshot":
+                    providers.add(templateSnapshot);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown meme api provider " + providerName);
+            }
+        }
+        return new CompositeMemeApi(providers, timeout, meterRegistry);
+    }
+}
@@ -0,0 +1,63 @@
+package ch.uzh.ifi.hase.soprafs23.utility.memeapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient.ApiResponse;
+
+/**
+ * Serves the templates from a snapshot file (classpath or disk) instead of the
+ * network. The file has the format of the imgflip response plus a "version",
+ * it is read once.
+ */
+public class SnapshotMemeApi implements IMemeApi {
+    private final Logger log = LoggerFactory.getLogger(SnapshotMemeApi.class);
+
+    /** newest snapshot format this provider understands */
+    static final int SUPPORTED_VERSION = 1;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Resource snapshot;
+
+    private volatile ApiResponse apiResponse;
+
+    public SnapshotMemeApi(Resource snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public ApiResponse getTemplates() {
+        if (apiResponse == null) {
+            apiResponse = load();
+        }
+        return apiResponse;
+    }
+
+    private ApiResponse load() {
+        try (InputStream in = snapshot.getInputStream()) {
+            JsonNode root = MAPPER.readTree(in);
+
+            int version = root.path("version").asInt(0);
+            if (version < 1 || version > SUPPORTED_VERSION) {
+                log.error("Unsupported template snapshot version {} in {}", version, snapshot.getDescription());
+                return null;
+            }
+
+            ApiResponse response = MAPPER.treeToValue(root, ApiResponse.class);
+            log.info("Loaded template snapshot v{} from {}", version, snapshot.getDescription());
+            return response;
+        } catch (IOException e) {
+            log.error("Unable to read template snapshot {}: {}", snapshot.getDescription(), e.toString());
+            return null;
+        }
+    }
+}
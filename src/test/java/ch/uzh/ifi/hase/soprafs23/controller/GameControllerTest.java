@@ -1,7 +1,7 @@
 package ch.uzh.ifi.hase.soprafs23.controller;
 
 import ch.uzh.ifi.hase.soprafs23.entity.*;
-import ch.uzh.ifi.hase.soprafs23.job.GameJob;
+import ch.uzh.ifi.hase.soprafs23.job.GameScheduler;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.meme.MemePostDTO;
 import ch.uzh.ifi.hase.soprafs23.security.JwtSecurityConfig;
 import ch.uzh.ifi.hase.soprafs23.service.GameService;
@@ -18,6 +18,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 
 import java.util.Collections;
@@ -44,7 +45,7 @@ public class GameControllerTest {
     private GameService gameService;
 
     @MockBean
-    private GameJob gameJob;
+    private GameScheduler gameScheduler;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -107,6 +108,16 @@ public class GameControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    @WithMockUser(username = "testUser")
+    public void testStreamGame() throws Exception {
+        Mockito.when(gameService.subscribe("gameId-123")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/games/{gameId}/stream", "gameId-123")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
 
 
     // Add more test methods for other GameController methods here, such as
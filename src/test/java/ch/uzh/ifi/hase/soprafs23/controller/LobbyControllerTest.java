@@ -7,6 +7,9 @@ import ch.uzh.ifi.hase.soprafs23.entity.Message;
 import ch.uzh.ifi.hase.soprafs23.entity.User;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyPostDTO;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserPostDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyPageGetDTO;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbySummaryGetDTO;
+import ch.uzh.ifi.hase.soprafs23.service.LobbyBrowser;
 import ch.uzh.ifi.hase.soprafs23.service.LobbyService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -27,7 +30,6 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -55,66 +57,36 @@ public class LobbyControllerTest {
         @MockBean
         private LobbyService lobbyService;
 
+        @MockBean
+        private LobbyBrowser lobbyBrowser;
+
         @Test
-        public void givenLobbies_whenGetLobbies_thenReturnJsonArray() throws Exception {
+        public void givenLobbies_whenGetLobbies_thenReturnPage() throws Exception {
                 // given
+                LobbySummaryGetDTO summary = new LobbySummaryGetDTO();
+                summary.setCode("calm-cat");
+                summary.setName("lobby name");
+                summary.setPlayerCount(2);
+                summary.setMaxPlayers(5);
 
-                User user = new User();
-                user.setName("owner name");
-
-                Lobby lobby = new Lobby();
-
-                LobbySetting lobbySetting = new LobbySetting(
-                                false,
-                                1,
-                                2,
-                                3,
-                                4,
-                                5,
-                                6,
-                                7);
-
-                lobby.setName("lobby name");
-                lobby.setOwner(user);
-                lobby.setLobbySetting(lobbySetting);
-                lobby.setPlayers(new ArrayList<User>());
-                lobby.setKickedPlayers(new ArrayList<User>());
-                lobby.setMessages(new ArrayList<Message>());
-                lobby.setIsJoinable(true);
-
-                List<Lobby> allLobbies = Collections.singletonList(lobby);
+                LobbyPageGetDTO page = new LobbyPageGetDTO();
+                page.setLobbies(Collections.singletonList(summary));
+                page.setNextCursor(7L);
 
-                // this mocks the UserService -> we define above what the userService should
-                // return when getUsers() is called
-                given(lobbyService.getLobbies()).willReturn(allLobbies);
+                given(lobbyBrowser.getPublicLobbies(3L, 1)).willReturn(page);
 
                 // when
-                MockHttpServletRequestBuilder getRequest = get("/lobbies").contentType(MediaType.APPLICATION_JSON);
+                MockHttpServletRequestBuilder getRequest = get("/lobbies").param("cursor", "3").param("size", "1")
+                                .contentType(MediaType.APPLICATION_JSON);
 
                 // then
                 mockMvc.perform(getRequest).andExpect(status().isOk())
-                                .andExpect(jsonPath("$", hasSize(1)))
-                                .andExpect(jsonPath("$[0].name", is(lobby.getName())))
-                                .andExpect(jsonPath("$[0].owner.name", is(lobby.getOwner().getName())))
-                                .andExpect(jsonPath("$[0].lobbySetting.isPublic",
-                                                is(lobby.getLobbySetting().getIsPublic())))
-                                .andExpect(jsonPath("$[0].lobbySetting.maxPlayers",
-                                                is(lobby.getLobbySetting().getMaxPlayers())))
-                                .andExpect(jsonPath("$[0].lobbySetting.maxRounds",
-                                                is(lobby.getLobbySetting().getMaxRounds())))
-                                .andExpect(
-                                                jsonPath("$[0].lobbySetting.memeChangeLimit",
-                                                                is(lobby.getLobbySetting().getMemeChangeLimit())))
-                                .andExpect(
-                                                jsonPath("$[0].lobbySetting.superLikeLimit",
-                                                                is(lobby.getLobbySetting().getSuperLikeLimit())))
-                                .andExpect(jsonPath("$[0].lobbySetting.superDislikeLimit",
-                                                is(lobby.getLobbySetting().getSuperDislikeLimit())))
-                                .andExpect(
-                                                jsonPath("$[0].lobbySetting.roundDuration",
-                                                                is(lobby.getLobbySetting().getRoundDuration())))
-                                .andExpect(jsonPath("$[0].lobbySetting.ratingDuration",
-                                                is(lobby.getLobbySetting().getRatingDuration())));
+                                .andExpect(jsonPath("$.lobbies", hasSize(1)))
+                                .andExpect(jsonPath("$.lobbies[0].code", is(summary.getCode())))
+                                .andExpect(jsonPath("$.lobbies[0].name", is(summary.getName())))
+                                .andExpect(jsonPath("$.lobbies[0].playerCount", is(summary.getPlayerCount())))
+                                .andExpect(jsonPath("$.lobbies[0].maxPlayers", is(summary.getMaxPlayers())))
+                                .andExpect(jsonPath("$.nextCursor", is(7)));
         }
 
         @Test
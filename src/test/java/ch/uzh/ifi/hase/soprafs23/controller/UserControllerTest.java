@@ -2,6 +2,7 @@ package ch.uzh.ifi.hase.soprafs23.controller;
 
 import ch.uzh.ifi.hase.soprafs23.security.JwtSecurityConfig;
 import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.service.JwtTokenService;
 import ch.uzh.ifi.hase.soprafs23.service.UserService;
 import ch.uzh.ifi.hase.soprafs23.rest.dto.user.UserPostDTO;
 
@@ -15,6 +16,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.web.server.ResponseStatusException;
@@ -43,6 +46,9 @@ public class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private JwtTokenService jwtTokenService;
+
     @Test
     public void createUser_newUser() throws Exception {
         // given
@@ -53,6 +59,7 @@ public class UserControllerTest {
         userPostDTO.setName("Test User");
 
         given(userService.createUser(Mockito.any())).willReturn(user);
+        given(jwtTokenService.generateToken(user)).willReturn("token");
 
         // when/then -> do the request + validate the result
         MockHttpServletRequestBuilder postRequest = post("/users")
@@ -62,7 +69,25 @@ public class UserControllerTest {
         // then
         mockMvc.perform(postRequest)
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.name", is(user.getName())));
+                .andExpect(jsonPath("$.name", is(user.getName())))
+                .andExpect(jsonPath("$.token", is("token")));
+    }
+
+    @Test
+    public void createStreamToken_authenticatedUser() throws Exception {
+        User user = new User();
+        user.setId("a1b2");
+        user.setName("Test User");
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, null));
+        given(jwtTokenService.generateStreamToken(user)).willReturn("stream token");
+
+        try {
+            mockMvc.perform(post("/users/stream-token"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.token", is("stream token")));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
     }
 
     /**
@@ -0,0 +1,209 @@
+package ch.uzh.ifi.hase.soprafs23.fixture;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GameSetting;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.Rating;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+import ch.uzh.ifi.hase.soprafs23.entity.Template;
+import ch.uzh.ifi.hase.soprafs23.entity.TextBox;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.repository.GameRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.TemplateRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.UserRepository;
+
+/**
+ * Stored Games
+ * Writes games of a given size straight to the database, as if they had been
+ * played up to the given phase. The games are neither in memory nor
+ * scheduled. Used by the integration tests and the benchmarks (src/jmh).
+ */
+public class StoredGames {
+
+    public static final String TEMPLATE_ID = "template";
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final UserRepository userRepository;
+
+    private final GameRepository gameRepository;
+
+    private final Template template;
+
+    public StoredGames(ApplicationContext context) {
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        this.userRepository = context.getBean(UserRepository.class);
+        this.gameRepository = context.getBean(GameRepository.class);
+
+        Template newTemplate = new Template();
+        newTemplate.setId(TEMPLATE_ID);
+        newTemplate.setImageUrl("https://i.imgflip.com/template.jpg");
+        TemplateRepository templateRepository = context.getBean(TemplateRepository.class);
+        this.template = transactionTemplate.execute(status -> templateRepository.save(newTemplate));
+    }
+
+    /**
+     * Returns the template of the stored games
+     *
+     * @return
+     */
+    public Template getTemplate() {
+        return template;
+    }
+
+    /**
+     * Stores users named "player {i}"
+     *
+     * @param count
+     * @return
+     */
+    public List<User> storePlayers(int count) {
+        return transactionTemplate.execute(status -> newPlayers(count));
+    }
+
+    /**
+     * Stores a game of new players, see {@link #storeGame(List, int, GameState)}
+     *
+     * @param players number of players
+     * @param rounds  number of rounds, including the current one
+     * @param state
+     * @return id of the game
+     */
+    public String storeGame(int players, int rounds, GameState state) {
+        return transactionTemplate.execute(status -> gameRepository.save(newGame(newPlayers(players), rounds, state))
+                .getId());
+    }
+
+    /**
+     * Stores a game in its last round.
+     * All rounds before the current one are complete: every player submitted a
+     * meme and rated every meme. In CREATION nothing of the current round was
+     * submitted, in RATING its memes were, in ROUND_RESULTS and GAME_RESULTS
+     * it is complete and closed.
+     *
+     * @param players stored users
+     * @param rounds  number of rounds, including the current one
+     * @param state
+     * @return id of the game
+     */
+    public String storeGame(List<User> players, int rounds, GameState state) {
+        return transactionTemplate.execute(status -> gameRepository.save(newGame(players, rounds, state)).getId());
+    }
+
+    private List<User> newPlayers(int count) {
+        List<User> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User player = new User();
+            player.setName("player " + i);
+            players.add(userRepository.save(player));
+        }
+        return players;
+    }
+
+    private Game newGame(List<User> players, int rounds, GameState state) {
+        GameSetting gameSetting = new GameSetting();
+        gameSetting.setMaxRounds(rounds);
+        // * long enough to never time out while a test runs the game
+        gameSetting.setRoundDuration(600);
+        gameSetting.setRatingDuration(600);
+        gameSetting.setRoundResultDuration(20);
+        gameSetting.setTemplateSwapLimit(3);
+
+        Game game = new Game();
+        game.setGameSetting(gameSetting);
+        game.setState(state);
+        game.setCurrentRound(rounds);
+        game.setStartedAt(new Date());
+        game.setTemplates(new ArrayList<>(List.of(template)));
+        game.setPlayers(new ArrayList<>(players.size()));
+        for (User player : players) {
+            game.addPlayer(player);
+        }
+        game.setRounds(new ArrayList<>(rounds));
+
+        boolean currentRoundOpen = state == GameState.CREATION || state == GameState.RATING;
+        for (int r = 1; r <= rounds; r++) {
+            boolean current = r == rounds;
+            Round round = new Round();
+            round.setRoundNumber(r);
+            round.setOpen(current && currentRoundOpen);
+            round.setStartedAt(new Date());
+            round.setMemes(new ArrayList<>());
+            round.setRatings(new ArrayList<>());
+            game.addRound(round);
+
+            if (current && state == GameState.CREATION) {
+                break;
+            }
+            for (User player : players) {
+                Meme meme = newMeme();
+                meme.setId(UUID.randomUUID().toString());
+                meme.setTemplate(template);
+                meme.setUser(player);
+                meme.setRound(round);
+                for (TextBox textBox : meme.getTextBoxes()) {
+                    textBox.setMeme(meme);
+                }
+                round.addMeme(meme);
+            }
+            if (current && state == GameState.RATING) {
+                break;
+            }
+            for (User player : players) {
+                for (Meme meme : round.getMemes()) {
+                    Rating rating = newRating(1);
+                    rating.setUser(player);
+                    rating.setMeme(meme);
+                    rating.setRound(round);
+                    round.addRating(rating);
+                }
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Returns a meme as posted by a player
+     *
+     * @return
+     */
+    public static Meme newMeme() {
+        TextBox top = new TextBox();
+        top.setText("one does not simply");
+        top.setxRate(50);
+        top.setyRate(10);
+        TextBox bottom = new TextBox();
+        bottom.setText("write a benchmark");
+        bottom.setxRate(50);
+        bottom.setyRate(90);
+
+        Meme meme = new Meme();
+        meme.setColor("white");
+        meme.setBackgroundColor("black");
+        meme.setFontSize(24);
+        meme.setTextBoxes(new ArrayList<>(List.of(top, bottom)));
+        return meme;
+    }
+
+    /**
+     * Returns a rating as posted by a player
+     *
+     * @param value
+     * @return
+     */
+    public static Rating newRating(int value) {
+        Rating rating = new Rating();
+        rating.setRating(value);
+        return rating;
+    }
+}
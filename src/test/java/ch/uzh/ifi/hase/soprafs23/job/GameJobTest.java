@@ -0,0 +1,91 @@
+package ch.uzh.ifi.hase.soprafs23.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GameSetting;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+
+public class GameJobTest {
+
+    private final GameJob gameJob = new GameJob();
+
+    private Game game;
+
+    private long roundStart;
+
+    @BeforeEach
+    public void setup() {
+        GameSetting gameSetting = new GameSetting();
+        gameSetting.setMaxRounds(2);
+        gameSetting.setRoundDuration(60);
+        gameSetting.setRatingDuration(30);
+        gameSetting.setRoundResultDuration(20);
+
+        roundStart = System.currentTimeMillis();
+        Round round = new Round();
+        round.setRoundNumber(1);
+        round.setOpen(true);
+        round.setStartedAt(new Date(roundStart));
+
+        game = new Game();
+        game.setGameSetting(gameSetting);
+        game.addPlayer(new User());
+        game.addPlayer(new User());
+        game.setRounds(new ArrayList<>());
+        game.addRound(round);
+        game.setCurrentRound(1);
+        game.setState(GameState.CREATION);
+    }
+
+    @Test
+    public void getPhaseEnd_creation_endsAfterRoundDuration() {
+        assertEquals(roundStart + 60_000, GameJob.getPhaseEnd(game));
+    }
+
+    @Test
+    public void advance_creationRunning_noChange() {
+        assertFalse(gameJob.advance(game, roundStart + 1_000));
+        assertEquals(GameState.CREATION, game.getState());
+    }
+
+    @Test
+    public void advance_everyoneSubmitted_startsRating() {
+        game.getRound().addMeme(new Meme());
+        game.getRound().addMeme(new Meme());
+
+        assertTrue(gameJob.advance(game, roundStart + 1_000));
+        assertEquals(GameState.RATING, game.getState());
+        assertFalse(game.getRound().isOpen());
+    }
+
+    @Test
+    public void advance_roundResultsOver_startsNextRound() {
+        game.setState(GameState.ROUND_RESULTS);
+
+        assertTrue(gameJob.advance(game, roundStart + 110_000));
+        assertEquals(GameState.CREATION, game.getState());
+        assertEquals(2, game.getCurrentRound());
+        assertEquals(2, game.getRound().getRoundNumber());
+    }
+
+    @Test
+    public void advance_lastRoundRatingOver_finishesGame() {
+        game.getGameSetting().setMaxRounds(1);
+        game.setState(GameState.RATING);
+
+        assertTrue(gameJob.advance(game, roundStart + 90_000));
+        assertEquals(GameState.GAME_RESULTS, game.getState());
+    }
+}
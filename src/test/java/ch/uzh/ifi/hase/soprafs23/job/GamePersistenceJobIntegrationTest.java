@@ -0,0 +1,222 @@
+package ch.uzh.ifi.hase.soprafs23.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.Rating;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+import ch.uzh.ifi.hase.soprafs23.entity.TextBox;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.fixture.StoredGames;
+import ch.uzh.ifi.hase.soprafs23.repository.GameRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Test class for writing the changes of running games to the database.
+ * The scheduled flush never runs during a test, the test flushes itself.
+ *
+ * @see GamePersistenceJob
+ */
+@WebAppConfiguration
+@SpringBootTest(properties = {
+        "game.persistence.flush-interval=3600000",
+        "game.persistence.max-attempts=3"
+})
+public class GamePersistenceJobIntegrationTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String ROUND_ID_QUERY = "SELECT r.id FROM Round r "
+            + "WHERE r.game.id = :gameId AND r.roundNumber = :roundNumber";
+
+    @Qualifier("gameRepository")
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Qualifier("userRepository")
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GamePersistenceJob gamePersistenceJob;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private StoredGames storedGames;
+
+    private Statistics statistics;
+
+    private String gameId;
+
+    /** memes of the current round, as submitted */
+    private List<Meme> memes;
+
+    @BeforeEach
+    public void setup() {
+        // * the memes of the current round are submitted, nobody rated yet
+        storedGames = new StoredGames(applicationContext);
+        gameId = storedGames.storeGame(3, 1, GameState.RATING);
+        memes = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Meme> submitted = new ArrayList<>();
+            for (Meme row : gameRepository.findById(gameId).orElseThrow().getRounds().get(0).getMemes()) {
+                Meme meme = new Meme();
+                meme.setId(row.getId());
+                meme.setUser(row.getUser());
+                submitted.add(meme);
+            }
+            return submitted;
+        });
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        statistics.setStatisticsEnabled(false);
+        gameRepository.findById(gameId).ifPresent(gameRepository::delete);
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void insertRating_roundNotLoaded_ratingsInserted() {
+        rateAll();
+
+        gamePersistenceJob.flush();
+
+        assertEquals(9, statistics.getEntityStatistics(Rating.class.getName()).getInsertCount());
+        assertEquals(0, statistics.getEntityStatistics(Round.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getCollectionStatistics(Round.class.getName() + ".ratings").getLoadCount());
+        assertEquals(9, countRatings());
+    }
+
+    @Test
+    public void insertRating_sameRound_roundIdQueriedOncePerBatch() {
+        rate(memes.get(0));
+        gamePersistenceJob.flush();
+
+        assertEquals(1, statistics.getQueryStatistics(ROUND_ID_QUERY).getExecutionCount());
+
+        // * a new batch does not reuse the ids of the previous one
+        rate(memes.get(1));
+        rate(memes.get(2));
+        gamePersistenceJob.flush();
+
+        assertEquals(2, statistics.getQueryStatistics(ROUND_ID_QUERY).getExecutionCount());
+        assertEquals(9, countRatings());
+    }
+
+    @Test
+    public void flush_changeFailsUntilRowExists_writtenAtRetry() {
+        User latePlayer = storedGames.storePlayers(1).get(0);
+        Meme lateMeme = StoredGames.newMeme();
+        lateMeme.setId("late-meme");
+        lateMeme.setUser(latePlayer);
+        rate(lateMeme);
+
+        // * the rated meme is not stored yet
+        gamePersistenceJob.flush();
+        assertEquals(0, countRatings());
+
+        storeMeme(lateMeme);
+        gamePersistenceJob.flush();
+
+        assertEquals(3, countRatings());
+    }
+
+    @Test
+    public void flush_changeFailsEveryAttempt_droppedAndCounted() {
+        double dropped = meterRegistry.get("game.persistence.dropped").counter().count();
+        Meme missingMeme = StoredGames.newMeme();
+        missingMeme.setId("missing-meme");
+        Round round = new Round();
+        round.setRoundNumber(1);
+        gamePersistenceJob.insertRating(gameId, round, rating(missingMeme, memes.get(0).getUser()));
+        rate(memes.get(0));
+
+        // * the changes after the failing one wait for it
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            gamePersistenceJob.flush();
+            assertEquals(0, countRatings());
+        }
+        gamePersistenceJob.flush();
+
+        assertEquals(3, countRatings());
+        assertEquals(dropped + 1, meterRegistry.get("game.persistence.dropped").counter().count());
+    }
+
+    /**
+     * Queues the rating of every player for every meme of the current round
+     */
+    private void rateAll() {
+        for (Meme meme : memes) {
+            rate(meme);
+        }
+    }
+
+    /**
+     * Queues the rating of every player for a meme of the current round
+     */
+    private void rate(Meme meme) {
+        Round round = new Round();
+        round.setRoundNumber(1);
+        for (Meme rater : memes) {
+            gamePersistenceJob.insertRating(gameId, round, rating(meme, rater.getUser()));
+        }
+    }
+
+    private static Rating rating(Meme meme, User user) {
+        Rating rating = StoredGames.newRating(1);
+        rating.setMeme(meme);
+        rating.setUser(user);
+        return rating;
+    }
+
+    private void storeMeme(Meme meme) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Round round = gameRepository.findById(gameId).orElseThrow().getRounds().get(0);
+            meme.setTemplate(storedGames.getTemplate());
+            meme.setRound(round);
+            for (TextBox textBox : meme.getTextBoxes()) {
+                textBox.setMeme(meme);
+            }
+            round.addMeme(meme);
+        });
+    }
+
+    private long countRatings() {
+        return new TransactionTemplate(transactionManager).execute(status -> (long) gameRepository
+                .findById(gameId).orElseThrow().getRounds().get(0).getRatings().size());
+    }
+}
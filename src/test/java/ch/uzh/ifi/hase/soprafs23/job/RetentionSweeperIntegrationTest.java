@@ -0,0 +1,194 @@
+package ch.uzh.ifi.hase.soprafs23.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.web.server.ResponseStatusException;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
+import ch.uzh.ifi.hase.soprafs23.entity.LobbySetting;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.fixture.StoredGames;
+import ch.uzh.ifi.hase.soprafs23.repository.ChatRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.GameRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.LobbyRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.UserRepository;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.chat.ChatPostDTO;
+import ch.uzh.ifi.hase.soprafs23.service.ChatService;
+import ch.uzh.ifi.hase.soprafs23.service.GameService;
+import ch.uzh.ifi.hase.soprafs23.service.GameStateStore;
+import ch.uzh.ifi.hase.soprafs23.service.LobbyService;
+import ch.uzh.ifi.hase.soprafs23.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Test class for the deletion of expired games, lobbies and users.
+ *
+ * @see RetentionSweeper
+ */
+@WebAppConfiguration
+@SpringBootTest
+public class RetentionSweeperIntegrationTest {
+
+    /** later than every retention */
+    private static final long DAY = 24 * 60 * 60 * 1000;
+
+    @Qualifier("gameRepository")
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Qualifier("lobbyRepository")
+    @Autowired
+    private LobbyRepository lobbyRepository;
+
+    @Qualifier("userRepository")
+    @Autowired
+    private UserRepository userRepository;
+
+    @Qualifier("chatRepository")
+    @Autowired
+    private ChatRepository chatRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LobbyService lobbyService;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameStateStore gameStateStore;
+
+    @Autowired
+    private RetentionSweeper retentionSweeper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private User owner;
+
+    private User player;
+
+    private String lobbyCode;
+
+    private String finishedGameId;
+
+    private String runningGameId;
+
+    @BeforeEach
+    public void setup() {
+        StoredGames storedGames = new StoredGames(applicationContext);
+        owner = createUser("owner");
+        player = createUser("player");
+
+        Lobby lobby = new Lobby();
+        lobby.setName("sweeper");
+        lobby.setIsJoinable(true);
+        lobby.setLobbySetting(new LobbySetting());
+        lobby.getLobbySetting().setMaxPlayers(4);
+        lobby.getLobbySetting().setMaxRounds(1);
+        lobbyCode = lobbyService.createLobby(lobby, owner).getCode();
+        lobbyService.joinLobby(lobbyCode, player);
+
+        ChatPostDTO chatPostDTO = new ChatPostDTO();
+        chatPostDTO.setAuthor(owner.getId());
+        chatPostDTO.setMessage("gg");
+        chatService.writeNewProximityChatMessage(lobbyCode, chatPostDTO);
+
+        finishedGameId = storedGames.storeGame(List.of(owner, player), 1, GameState.GAME_RESULTS);
+        lobbyService.setGameStarted(lobbyCode, finishedGameId, new Date());
+
+        // * running games live in memory, getting the game loads it
+        runningGameId = storedGames.storeGame(List.of(createUser("runner")), 1, GameState.CREATION);
+        gameService.getGame(runningGameId);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        gameStateStore.remove(runningGameId);
+        // * running games are never swept
+        gameRepository.findById(runningGameId).ifPresent(gameRepository::delete);
+        retentionSweeper.sweep(System.currentTimeMillis() + DAY);
+    }
+
+    @Test
+    public void sweep_notExpired_keepsEverything() {
+        retentionSweeper.sweep(System.currentTimeMillis());
+
+        assertTrue(gameRepository.findById(finishedGameId).isPresent());
+        assertNotNull(lobbyService.getLobbyByCode(lobbyCode));
+        assertEquals(1, chatRepository.count());
+        assertNotNull(userRepository.findById(owner.getId()));
+    }
+
+    @Test
+    public void sweep_expired_deletesFinishedGameLobbyAndUsers() {
+        double deletedGames = deleted("games");
+        double deletedLobbies = deleted("lobbies");
+
+        retentionSweeper.sweep(System.currentTimeMillis() + DAY);
+
+        assertFalse(gameRepository.findById(finishedGameId).isPresent());
+        assertThrows(ResponseStatusException.class, () -> lobbyService.getLobbyByCode(lobbyCode));
+        assertNull(lobbyRepository.findByCode(lobbyCode));
+        assertEquals(0, chatRepository.count());
+        assertNull(userRepository.findById(owner.getId()));
+        assertNull(userRepository.findById(player.getId()));
+
+        assertEquals(deletedGames + 1, deleted("games"));
+        assertEquals(deletedLobbies + 1, deleted("lobbies"));
+    }
+
+    @Test
+    public void sweep_expired_keepsRunningGameAndItsPlayers() {
+        retentionSweeper.sweep(System.currentTimeMillis() + DAY);
+
+        Game runningGame = gameRepository.findWithPlayersById(runningGameId).orElseThrow();
+        assertEquals(1, runningGame.getPlayers().size());
+        assertNotNull(userRepository.findById(runningGame.getPlayers().get(0).getUser().getId()));
+    }
+
+    @Test
+    public void sweep_expired_keepsRunningGameNotInMemory() {
+        gameStateStore.remove(runningGameId);
+
+        retentionSweeper.sweep(System.currentTimeMillis() + DAY);
+
+        assertTrue(gameRepository.findById(runningGameId).isPresent());
+    }
+
+    private double deleted(String type) {
+        return meterRegistry.get("retention.deleted").tag("type", type).counter().count();
+    }
+
+    private User createUser(String name) {
+        User user = new User();
+        user.setName(name);
+        return userService.createUser(user);
+    }
+}
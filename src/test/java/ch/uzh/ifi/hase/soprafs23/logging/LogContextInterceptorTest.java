@@ -0,0 +1,79 @@
+package ch.uzh.ifi.hase.soprafs23.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class LogContextInterceptorTest {
+
+    private final LogContextInterceptor interceptor = new LogContextInterceptor();
+
+    @AfterEach
+    public void clear() {
+        MDC.clear();
+    }
+
+    @Test
+    public void preHandle_pathVariables_putIntoContext() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+                Map.of("gameId", "game-1", "templateId", "template-1"));
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertEquals("game-1", MDC.get(LogContext.GAME_ID));
+        assertNull(MDC.get(LogContext.LOBBY_CODE));
+        assertNull(MDC.get("templateId"));
+    }
+
+    @Test
+    public void afterCompletion_contextCleared() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("lobbyCode", "ABCD"));
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+        assertEquals("ABCD", MDC.get(LogContext.LOBBY_CODE));
+
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+
+        assertNull(MDC.get(LogContext.LOBBY_CODE));
+    }
+
+    @Test
+    public void streamRequest_asyncStarted_contextCleared() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StreamController())
+                .addInterceptors(interceptor)
+                .build();
+
+        mockMvc.perform(get("/games/game-1/stream"))
+                .andExpect(request().asyncStarted());
+
+        // * the emitter is still open, the thread already serves other requests
+        assertNull(MDC.get(LogContext.GAME_ID));
+    }
+
+    @RestController
+    static class StreamController {
+
+        @GetMapping("/games/{gameId}/stream")
+        SseEmitter stream(@PathVariable String gameId) {
+            assertEquals(gameId, MDC.get(LogContext.GAME_ID));
+            return new SseEmitter();
+        }
+    }
+}
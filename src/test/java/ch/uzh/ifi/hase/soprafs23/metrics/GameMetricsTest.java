@@ -0,0 +1,99 @@
+package ch.uzh.ifi.hase.soprafs23.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+import ch.uzh.ifi.hase.soprafs23.service.GameStateStore;
+import ch.uzh.ifi.hase.soprafs23.service.LobbyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class GameMetricsTest {
+
+    @Mock
+    private LobbyService lobbyService;
+
+    private MeterRegistry meterRegistry;
+
+    private GameStateStore gameStateStore;
+
+    private GameMetrics gameMetrics;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        gameStateStore = new GameStateStore();
+        gameMetrics = new GameMetrics(meterRegistry, gameStateStore, lobbyService);
+    }
+
+    @Test
+    public void activeGames_countedByState() {
+        gameStateStore.put(game(GameState.CREATION));
+        gameStateStore.put(game(GameState.CREATION));
+        gameStateStore.put(game(GameState.RATING));
+        when(lobbyService.getLobbyCount()).thenReturn(5);
+
+        assertEquals(2, meterRegistry.get("game.active").tag("state", "CREATION").gauge().value());
+        assertEquals(1, meterRegistry.get("game.active").tag("state", "RATING").gauge().value());
+        assertEquals(0, meterRegistry.get("game.active").tag("state", "GAME_RESULTS").gauge().value());
+        assertEquals(5, meterRegistry.get("lobby.active").gauge().value());
+    }
+
+    @Test
+    public void recordTransition_deadlinePassed_recordsLateness() {
+        gameMetrics.recordTransition(GameState.ROUND_RESULTS, 1_000, 1_250);
+
+        assertEquals(1, meterRegistry.get("game.phase.transitions").tag("phase", "ROUND_RESULTS")
+                .tag("trigger", "deadline").counter().count());
+        assertEquals(250, meterRegistry.get("game.phase.lateness").tag("phase", "ROUND_RESULTS").timer()
+                .totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void recordTransition_everyoneSubmitted_notLate() {
+        gameMetrics.recordTransition(GameState.CREATION, 2_000, 1_250);
+
+        assertEquals(1, meterRegistry.get("game.phase.transitions").tag("phase", "CREATION")
+                .tag("trigger", "completed").counter().count());
+        assertEquals(0, meterRegistry.get("game.phase.lateness").tag("phase", "CREATION").timer().count());
+    }
+
+    @Test
+    public void submissions_counted() {
+        gameMetrics.memeSubmitted();
+        gameMetrics.memeSubmitted();
+        gameMetrics.ratingSubmitted();
+
+        assertEquals(2, meterRegistry.get("game.memes").counter().count());
+        assertEquals(1, meterRegistry.get("game.ratings").counter().count());
+    }
+
+    private static Game game(GameState state) {
+        Round round = new Round();
+        round.setRoundNumber(1);
+        round.setStartedAt(new Date());
+
+        Game game = new Game();
+        game.setId(UUID.randomUUID().toString());
+        game.setState(state);
+        game.setPlayers(new ArrayList<>());
+        game.setRounds(new ArrayList<>());
+        game.addRound(round);
+        game.setCurrentRound(1);
+        return game;
+    }
+}
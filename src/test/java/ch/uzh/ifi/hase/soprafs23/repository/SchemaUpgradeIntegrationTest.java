@@ -0,0 +1,73 @@
+package ch.uzh.ifi.hase.soprafs23.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.service.UserService;
+
+/**
+ * Test class for upgrading a database created by a previous version.
+ *
+ * @see SchemaUpgrade
+ */
+@WebAppConfiguration
+@SpringBootTest
+public class SchemaUpgradeIntegrationTest {
+
+    @Autowired
+    private SchemaUpgrade schemaUpgrade;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanup() {
+        schemaUpgrade.upgrade();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void upgrade_previousSchema_usersCreatedAgain() {
+        // * users and games as mapped before the GAME_PLAYER participations
+        jdbcTemplate.execute("ALTER TABLE USERS ADD COLUMN EXECUTED_SWAPS INTEGER DEFAULT 0 NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE USERS ALTER COLUMN EXECUTED_SWAPS DROP DEFAULT");
+        jdbcTemplate.execute("CREATE TABLE GAME_PLAYERS (GAME_ID VARCHAR(255) NOT NULL, "
+                + "PLAYERS_ID VARCHAR(255) NOT NULL REFERENCES USERS(ID))");
+        assertThrows(DataIntegrityViolationException.class, () -> userService.createUser(user("before")));
+
+        schemaUpgrade.upgrade();
+
+        assertNotNull(userService.createUser(user("after")).getId());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE TABLE_NAME = 'GAME_PLAYERS'", Integer.class));
+    }
+
+    @Test
+    public void upgrade_currentSchema_noChange() {
+        schemaUpgrade.upgrade();
+
+        assertNotNull(userService.createUser(user("player")).getId());
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setName(name);
+        return user;
+    }
+}
@@ -0,0 +1,91 @@
+package ch.uzh.ifi.hase.soprafs23.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.service.JwtTokenService;
+
+public class JwtRequestFilterTest {
+
+    private final JwtTokenService jwtTokenService = new JwtTokenService("a".repeat(64), 60_000, 60_000);
+
+    private final JwtRequestFilter filter = new JwtRequestFilter(jwtTokenService, new PrincipalCache(60_000, 10));
+
+    private final User user = new User();
+
+    {
+        user.setId("a1b2");
+        user.setName("Test User");
+    }
+
+    @AfterEach
+    public void clear() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void bearerHeader_authenticated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/games/game-1");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + jwtTokenService.generateToken(user));
+
+        assertEquals("a1b2", filter(request).getId());
+    }
+
+    @Test
+    public void gameStream_streamTokenParameter_authenticated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/games/game-1/stream");
+        request.setParameter("token", jwtTokenService.generateStreamToken(user));
+
+        assertEquals("a1b2", filter(request).getId());
+    }
+
+    @Test
+    public void lobbyStream_streamTokenParameter_authenticated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/lobbies/calm-cat/stream");
+        request.setParameter("token", jwtTokenService.generateStreamToken(user));
+
+        assertEquals("a1b2", filter(request).getId());
+    }
+
+    @Test
+    public void otherPath_streamTokenParameter_notAuthenticated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/games/game-1");
+        request.setParameter("token", jwtTokenService.generateStreamToken(user));
+
+        assertNull(filter(request));
+    }
+
+    @Test
+    public void gameStream_regularTokenParameter_notAuthenticated() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/games/game-1/stream");
+        request.setParameter("token", jwtTokenService.generateToken(user));
+
+        assertNull(filter(request));
+    }
+
+    /**
+     * Runs the filter
+     *
+     * @return the authenticated user seen by the rest of the chain, null if
+     *         there is none
+     */
+    private User filter(MockHttpServletRequest request) throws Exception {
+        AtomicReference<User> principal = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            principal.set(authentication == null ? null : (User) authentication.getPrincipal());
+        });
+        return principal.get();
+    }
+}
@@ -0,0 +1,89 @@
+package ch.uzh.ifi.hase.soprafs23.security;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.service.JwtTokenService;
+
+/**
+ * Test class for the access to the actuator endpoints, served by a stand-in
+ * controller
+ */
+@WebMvcTest(controllers = JwtSecurityConfigTest.ActuatorController.class, properties = {
+        "metrics.username=prometheus",
+        "metrics.password=scrape-secret"
+})
+@Import({ JwtSecurityConfig.class, JwtSecurityConfigTest.ActuatorController.class })
+public class JwtSecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JwtTokenService jwtTokenService;
+
+    @MockBean
+    private PrincipalCache principalCache;
+
+    @Test
+    public void health_noCredentials_ok() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void prometheus_noCredentials_unauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void prometheus_wrongPassword_unauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "guess")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void prometheus_playerToken_unauthorized() throws Exception {
+        User user = new User();
+        user.setId("a1b2");
+        user.setName("Test User");
+        given(principalCache.get("token")).willReturn(user);
+
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void prometheus_scrapeCredentials_ok() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "scrape-secret")))
+                .andExpect(status().isOk());
+    }
+
+    @RestController
+    static class ActuatorController {
+
+        @GetMapping("/actuator/health")
+        public String health() {
+            return "UP";
+        }
+
+        @GetMapping("/actuator/prometheus")
+        public String prometheus() {
+            return "game_active 0";
+        }
+    }
+}
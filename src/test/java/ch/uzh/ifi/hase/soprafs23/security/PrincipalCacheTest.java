@@ -0,0 +1,59 @@
+package ch.uzh.ifi.hase.soprafs23.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+
+public class PrincipalCacheTest {
+
+    @Test
+    public void get_cachedToken_returnsUser() {
+        PrincipalCache principalCache = new PrincipalCache(60_000, 10);
+        User user = user("1");
+
+        principalCache.put("token", user, Long.MAX_VALUE);
+
+        assertEquals(user, principalCache.get("token"));
+        assertNull(principalCache.get("other"));
+    }
+
+    @Test
+    public void get_expiredToken_returnsNull() {
+        PrincipalCache principalCache = new PrincipalCache(0, 10);
+
+        principalCache.put("token", user("1"), Long.MAX_VALUE);
+
+        assertNull(principalCache.get("token"));
+    }
+
+    @Test
+    public void put_full_staysBounded() {
+        PrincipalCache principalCache = new PrincipalCache(60_000, 2);
+        principalCache.put("token1", user("1"), Long.MAX_VALUE);
+        principalCache.put("token2", user("2"), Long.MAX_VALUE);
+
+        principalCache.put("token3", user("3"), Long.MAX_VALUE);
+
+        assertNull(principalCache.get("token1"));
+        assertEquals("3", principalCache.get("token3").getId());
+    }
+
+    @Test
+    public void get_expiredToken_notReturnedBeforeTtl() {
+        PrincipalCache principalCache = new PrincipalCache(60_000, 10);
+
+        principalCache.put("token", user("1"), System.currentTimeMillis() - 1);
+
+        assertNull(principalCache.get("token"));
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("user " + id);
+        return user;
+    }
+}
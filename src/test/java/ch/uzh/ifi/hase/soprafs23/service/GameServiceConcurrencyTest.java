@@ -0,0 +1,218 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GamePlayer;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.Rating;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+import ch.uzh.ifi.hase.soprafs23.entity.TextBox;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.fixture.StoredGames;
+import ch.uzh.ifi.hase.soprafs23.job.GameJob;
+import ch.uzh.ifi.hase.soprafs23.job.RetentionSweeper;
+import ch.uzh.ifi.hase.soprafs23.repository.GameRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.MemeRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.RoundRepository;
+
+/**
+ * Stress test of parallel submissions into one round, while the game job
+ * keeps running the same game. No meme or rating may get lost, neither in
+ * memory nor in the database.
+ *
+ * @see GameService
+ */
+@WebAppConfiguration
+@SpringBootTest
+public class GameServiceConcurrencyTest {
+
+    private static final int PLAYERS = 200;
+
+    private static final int THREADS = 32;
+
+    /** time (ms) the write-behind may take to persist everything */
+    private static final long PERSIST_TIMEOUT = 10_000;
+
+    @Qualifier("gameRepository")
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Qualifier("roundRepository")
+    @Autowired
+    private RoundRepository roundRepository;
+
+    @Autowired
+    private MemeRepository memeRepository;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameJob gameJob;
+
+    @Autowired
+    private GameStateStore gameStateStore;
+
+    @Autowired
+    private RetentionSweeper retentionSweeper;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private ExecutorService executor;
+
+    private String gameId;
+
+    private List<User> players;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(THREADS + 1);
+        StoredGames storedGames = new StoredGames(applicationContext);
+        players = storedGames.storePlayers(PLAYERS);
+        // * first round, nothing submitted yet
+        gameId = storedGames.storeGame(players, 1, GameState.CREATION);
+        // * loads the game into memory, where the game job runs it
+        gameService.getGame(gameId);
+    }
+
+    @AfterEach
+    public void cleanup() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        gameStateStore.remove(gameId);
+        // * running games are never swept
+        gameRepository.findById(gameId).ifPresent(gameRepository::delete);
+        retentionSweeper.sweep(System.currentTimeMillis() + 24 * 60 * 60 * 1000);
+    }
+
+    @Test
+    public void parallelSubmissions_nothingLost() throws Exception {
+        // everyone submits a meme
+        runWithGameJob(player -> () -> {
+            gameService.createMeme(gameId, StoredGames.TEMPLATE_ID, meme(player), player);
+            return null;
+        });
+
+        Round round = gameService.getGame(gameId).getRound();
+        assertEquals(PLAYERS, round.getSubmitedMemes().size());
+        assertEquals(GameState.RATING, gameService.getGame(gameId).getState());
+
+        // everyone rates the meme of the next player
+        List<Meme> memes = new ArrayList<>(round.getSubmitedMemes());
+        runWithGameJob(player -> () -> {
+            Meme meme = memes.get((players.indexOf(player) + 1) % PLAYERS);
+            Rating rating = new Rating();
+            rating.setRating(1);
+            gameService.createRating(gameId, meme.getId(), rating, player);
+            return null;
+        });
+
+        assertEquals(PLAYERS, round.getRatings().size());
+        int totalScore = 0;
+        for (Scoreboard.PlayerScore playerScore : gameService.getGameResults(gameId)) {
+            totalScore += playerScore.getScore();
+        }
+        assertEquals(PLAYERS, totalScore);
+
+        // * written behind, one meme and one rating per player
+        awaitPersisted(() -> memeRepository.findAllWithTextBoxesByGameId(gameId).size() == PLAYERS);
+        awaitPersisted(() -> roundRepository.findAllWithRatingsByGameId(gameId).get(0).getRatings()
+                .size() == PLAYERS);
+        GameState state = gameService.getGame(gameId).getState();
+        awaitPersisted(() -> gameRepository.findById(gameId).orElseThrow().getState() == state);
+        // * scores are written once the rating phase is over
+        awaitPersisted(() -> gameRepository.findWithPlayersById(gameId).orElseThrow().getPlayers().stream()
+                .mapToInt(GamePlayer::getScore).sum() == PLAYERS);
+
+        Set<String> authors = new HashSet<>();
+        for (Meme meme : memeRepository.findAllWithTextBoxesByGameId(gameId)) {
+            assertEquals(1, meme.getTextBoxes().size());
+            authors.add(meme.getUser().getId());
+        }
+        assertEquals(PLAYERS, authors.size());
+    }
+
+    /**
+     * Submits for all players at once while the game job runs the game
+     */
+    private void runWithGameJob(SubmissionFactory submission) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean submitting = new AtomicBoolean(true);
+        Future<?> job = executor.submit(() -> {
+            while (submitting.get()) {
+                gameJob.run(gameId);
+            }
+            return null;
+        });
+
+        List<Future<Void>> submissions = new ArrayList<>(PLAYERS);
+        for (User player : players) {
+            Callable<Void> call = submission.of(player);
+            submissions.add(executor.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<Void> future : submissions) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            submitting.set(false);
+        }
+        job.get(30, TimeUnit.SECONDS);
+        // * the last submission completed the phase
+        gameJob.run(gameId);
+    }
+
+    private static void awaitPersisted(BooleanSupplier persisted) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + PERSIST_TIMEOUT;
+        while (!persisted.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "not persisted in time");
+            Thread.sleep(50);
+        }
+    }
+
+    private static Meme meme(User player) {
+        TextBox textBox = new TextBox();
+        textBox.setText(player.getName());
+        textBox.setxRate(1);
+        textBox.setyRate(2);
+        Meme meme = new Meme();
+        meme.setColor("black");
+        meme.setBackgroundColor("white");
+        meme.setFontSize(12);
+        meme.setTextBoxes(new ArrayList<>(List.of(textBox)));
+        return meme;
+    }
+
+    private interface SubmissionFactory {
+        Callable<Void> of(User player);
+    }
+}
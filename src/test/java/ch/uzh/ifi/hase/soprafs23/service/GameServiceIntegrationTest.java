@@ -0,0 +1,157 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.Rating;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+import ch.uzh.ifi.hase.soprafs23.fixture.StoredGames;
+import ch.uzh.ifi.hase.soprafs23.repository.GameRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.UserRepository;
+
+/**
+ * Test class for loading games from the database.
+ *
+ * @see GameService
+ */
+@WebAppConfiguration
+@SpringBootTest
+public class GameServiceIntegrationTest {
+
+    /** statements needed to load a game, whatever its size */
+    private static final int LOAD_STATEMENTS = 7;
+
+    @Qualifier("gameRepository")
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Qualifier("userRepository")
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private GameStateStore gameStateStore;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private StoredGames storedGames;
+
+    private final List<String> gameIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        storedGames = new StoredGames(applicationContext);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        statistics.setStatisticsEnabled(false);
+        for (String gameId : gameIds) {
+            gameStateStore.remove(gameId);
+            gameRepository.findById(gameId).ifPresent(gameRepository::delete);
+        }
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void getGame_notInMemory_constantStatementCount() {
+        String smallGameId = storeGame(1, 2, GameState.ROUND_RESULTS);
+        String largeGameId = storeGame(4, 8, GameState.ROUND_RESULTS);
+
+        long smallGameStatements = countStatements(smallGameId);
+        long largeGameStatements = countStatements(largeGameId);
+
+        assertTrue(smallGameStatements <= LOAD_STATEMENTS, "statements: " + smallGameStatements);
+        assertEquals(smallGameStatements, largeGameStatements);
+    }
+
+    @Test
+    public void getGame_notInMemory_loadsRoundsMemesAndRatings() {
+        String gameId = storeGame(2, 3, GameState.ROUND_RESULTS);
+
+        List<Round> rounds = gameService.getGame(gameId).getRounds();
+
+        // * detached after loading, lazy associations would throw
+        assertEquals(2, rounds.size());
+        for (Round round : rounds) {
+            assertEquals(3, round.getMemes().size());
+            assertEquals(9, round.getRatings().size());
+            for (Meme meme : round.getMemes()) {
+                assertEquals(2, meme.getTextBoxes().size());
+                assertEquals(StoredGames.TEMPLATE_ID, meme.getTemplate().getId());
+            }
+            for (Rating rating : round.getRatings()) {
+                assertTrue(rating.getUser().getName().startsWith("player"));
+            }
+        }
+        assertEquals(3, gameService.getGameResults(gameId).size());
+    }
+
+    @Test
+    public void resumeGames_afterRestart_loadsRunningGamesOnly() {
+        String runningGameId = storeGame(1, 2, GameState.CREATION);
+        String finishedGameId = storeGame(1, 2, GameState.GAME_RESULTS);
+
+        List<String> resumed = gameService.resumeGames();
+
+        assertTrue(resumed.contains(runningGameId));
+        assertFalse(resumed.contains(finishedGameId));
+        assertNotNull(gameStateStore.get(runningGameId));
+        assertNull(gameStateStore.get(finishedGameId));
+    }
+
+    @Test
+    public void getGame_finishedGame_notAddedToStore() {
+        String gameId = storeGame(1, 2, GameState.GAME_RESULTS);
+
+        assertEquals(GameState.GAME_RESULTS, gameService.getGame(gameId).getState());
+        assertEquals(2, gameService.getGameResults(gameId).size());
+
+        // * evicted once, nothing would evict it again
+        assertNull(gameStateStore.get(gameId));
+    }
+
+    private String storeGame(int roundCount, int playerCount, GameState state) {
+        String gameId = storedGames.storeGame(playerCount, roundCount, state);
+        gameIds.add(gameId);
+        return gameId;
+    }
+
+    private long countStatements(String gameId) {
+        statistics.clear();
+        gameService.getGame(gameId);
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -5,12 +5,17 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,26 +23,66 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManager;
 
 import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.GameSetting;
+import ch.uzh.ifi.hase.soprafs23.entity.GameState;
 import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs23.entity.LobbySetting;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
 
 import ch.uzh.ifi.hase.soprafs23.entity.Template;
+import ch.uzh.ifi.hase.soprafs23.entity.TextBox;
 import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.job.GamePersistenceJob;
+import ch.uzh.ifi.hase.soprafs23.metrics.GameMetrics;
 import ch.uzh.ifi.hase.soprafs23.repository.GameRepository;
 import ch.uzh.ifi.hase.soprafs23.repository.LobbyRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.MemeRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.RoundRepository;
 
 public class GameServiceTest {
     @Mock
     private GameRepository gameRepository;
 
+    @Mock
+    private RoundRepository roundRepository;
+
+    @Mock
+    private MemeRepository memeRepository;
+
     @Mock
     private LobbyService lobbyService;
 
     @Mock
     private LobbyRepository lobbyRepository;
 
+    @Mock
+    private TemplateCatalog templateCatalog;
+
+    @Mock
+    private GamePersistenceJob gamePersistenceJob;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private GameMetrics gameMetrics;
+
+    @Spy
+    private GameStateStore gameStateStore = new GameStateStore();
+
     @InjectMocks
     private GameService gameService;
 
@@ -50,6 +95,7 @@ public class GameServiceTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(gameService, "entityManager", entityManager);
 
         // given
         testGame = new Game();
@@ -92,8 +138,19 @@ public class GameServiceTest {
     public void createGame_validInputs_success() {
         // given
         String testLobbyCode = "testLobbyCode";
+        User lobbyPlayer = new User();
+        lobbyPlayer.setId(UUID.randomUUID().toString());
+        lobbyPlayer.setName("LobbyPlayer");
+        testLobby.getPlayers().add(lobbyPlayer);
 
         Mockito.when(lobbyService.getLobbyByCode(testLobbyCode)).thenReturn(testLobby);
+        Mockito.when(templateCatalog.getTemplates()).thenReturn(testGame.getTemplates());
+        // id is generated when the game is saved
+        Mockito.when(gameRepository.save(any())).thenAnswer(invocation -> {
+            Game game = invocation.getArgument(0);
+            game.setId(UUID.randomUUID().toString());
+            return game;
+        });
 
         // when
         Game createdGame = gameService.createGame(testLobbyCode);
@@ -105,6 +162,33 @@ public class GameServiceTest {
         assertEquals(lobbySetting.getMemeChangeLimit(), createdGame.getGameSetting().getTemplateSwapLimit());
         verify(gameRepository, times(1)).save(any());
         verify(lobbyService, times(1)).getLobbyByCode(testLobbyCode);
+        assertEquals(testGame.getTemplates(), createdGame.getTemplates());
+        // * the lobby user takes part, it is not copied
+        assertSame(lobbyPlayer, createdGame.getPlayer(lobbyPlayer.getId()).getUser());
+        assertEquals(0, createdGame.getPlayer(lobbyPlayer.getId()).getExecutedSwaps());
+    }
+
+    @Test
+    public void getMemes_newGameWithoutSubmissions_empty() {
+        User lobbyPlayer = new User();
+        lobbyPlayer.setId(UUID.randomUUID().toString());
+        lobbyPlayer.setName("LobbyPlayer");
+        testLobby.getPlayers().add(lobbyPlayer);
+
+        Mockito.when(lobbyService.getLobbyByCode("testLobbyCode")).thenReturn(testLobby);
+        Mockito.when(templateCatalog.getTemplates()).thenReturn(testGame.getTemplates());
+        Mockito.when(gameRepository.save(any())).thenAnswer(invocation -> {
+            Game game = invocation.getArgument(0);
+            game.setId(UUID.randomUUID().toString());
+            return game;
+        });
+        Game createdGame = gameService.createGame("testLobbyCode");
+
+        // when
+        List<Meme> memes = gameService.getMemes(createdGame.getId());
+
+        // then
+        assertTrue(memes.isEmpty());
     }
 
     @Test
@@ -115,7 +199,8 @@ public class GameServiceTest {
         Game fetchedGame = gameService.getGame(testGame.getId());
 
         // then
-        assertEquals(testGame, fetchedGame);
+        assertEquals(testGame.getId(), fetchedGame.getId());
+        assertEquals(testGame.getCurrentRound(), fetchedGame.getCurrentRound());
         verify(gameRepository, times(1)).findById(testGame.getId());
     }
 
@@ -134,6 +219,116 @@ public class GameServiceTest {
         verify(gameRepository, times(1)).findById(testGame.getId());
     }
 
+    @Test
+    public void createMeme_secondMemeOfUserInRound_conflict() {
+        when(gameRepository.findById(testGame.getId())).thenReturn(java.util.Optional.ofNullable(testGame));
+
+        User testUser = new User();
+        testUser.setId(UUID.randomUUID().toString());
+        testUser.setName("TestUser");
+        User otherUser = new User();
+        otherUser.setId(UUID.randomUUID().toString());
+        otherUser.setName("OtherUser");
+
+        testGame.getTemplates().get(0).setId("template");
+        testGame.setState(GameState.CREATION);
+        testGame.addPlayer(testUser);
+        testGame.addPlayer(otherUser);
+        testGame.setRounds(new ArrayList<>());
+        Round round = new Round();
+        round.setRoundNumber(1);
+        round.setOpen(true);
+        testGame.addRound(round);
+
+        gameService.createMeme(testGame.getId(), "template", meme(), testUser);
+
+        // when
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> gameService.createMeme(testGame.getId(), "template", meme(), testUser));
+
+        // then
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        assertEquals(1, round.getSubmitedMemes().size());
+        verify(gamePersistenceJob, times(1)).insertMeme(any(), any(), any());
+    }
+
+    @Test
+    public void swapTemplate_limitReached_badRequest() {
+        when(gameRepository.findById(testGame.getId())).thenReturn(java.util.Optional.ofNullable(testGame));
+
+        User testUser = new User();
+        testUser.setId(UUID.randomUUID().toString());
+        testUser.setName("TestUser");
+
+        GameSetting gameSetting = new GameSetting();
+        gameSetting.setTemplateSwapLimit(2);
+        testGame.setGameSetting(gameSetting);
+        testGame.addPlayer(testUser);
+
+        assertNotNull(gameService.swapTemplate(testGame.getId(), testUser));
+        assertNotNull(gameService.swapTemplate(testGame.getId(), testUser));
+
+        // when
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> gameService.swapTemplate(testGame.getId(), testUser));
+
+        // then
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertEquals(2, testGame.getPlayer(testUser.getId()).getExecutedSwaps());
+        verify(gamePersistenceJob, times(2)).updatePlayer(any(), any());
+    }
+
+    @Test
+    public void swapTemplate_notAPlayer_forbidden() {
+        when(gameRepository.findById(testGame.getId())).thenReturn(java.util.Optional.ofNullable(testGame));
+
+        User testUser = new User();
+        testUser.setId(UUID.randomUUID().toString());
+        testUser.setName("TestUser");
+
+        GameSetting gameSetting = new GameSetting();
+        gameSetting.setTemplateSwapLimit(2);
+        testGame.setGameSetting(gameSetting);
+
+        // when
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> gameService.swapTemplate(testGame.getId(), testUser));
+
+        // then
+        assertEquals(HttpStatus.FORBIDDEN, exception.getStatus());
+    }
+
+    @Test
+    public void swapTemplate_finishedGame_conflict() {
+        when(gameRepository.findById(testGame.getId())).thenReturn(java.util.Optional.ofNullable(testGame));
+
+        User testUser = new User();
+        testUser.setId(UUID.randomUUID().toString());
+        testUser.setName("TestUser");
+
+        GameSetting gameSetting = new GameSetting();
+        gameSetting.setTemplateSwapLimit(2);
+        testGame.setGameSetting(gameSetting);
+        testGame.addPlayer(testUser);
+        testGame.setState(GameState.GAME_RESULTS);
+
+        // when
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> gameService.swapTemplate(testGame.getId(), testUser));
+
+        // then
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(gamePersistenceJob, never()).updatePlayer(any(), any());
+    }
+
+    private static Meme meme() {
+        TextBox textBox = new TextBox();
+        textBox.setText("text");
+        Meme meme = new Meme();
+        meme.setTextBoxes(new ArrayList<>(List.of(textBox)));
+        return meme;
+    }
+
     // @Test
     // public void createMeme_validInputs_success() {
     // when(gameRepository.findById(testGame.getId())).thenReturn(java.util.Optional.ofNullable(testGame));
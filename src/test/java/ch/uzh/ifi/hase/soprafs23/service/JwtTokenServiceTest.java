@@ -0,0 +1,87 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+
+public class JwtTokenServiceTest {
+
+    private static final String SECRET = "a".repeat(JwtTokenService.MIN_SECRET_LENGTH);
+
+    private final JwtTokenService jwtTokenService = new JwtTokenService(SECRET, 60_000, 60_000);
+
+    @Test
+    public void verifyToken_generatedToken_returnsUser() {
+        User user = new User();
+        user.setId("a1b2");
+        user.setName("Test User");
+
+        DecodedJWT jwt = jwtTokenService.verifyToken(jwtTokenService.generateToken(user));
+
+        assertNotNull(jwt);
+        User principal = jwtTokenService.getUser(jwt);
+        assertEquals(user.getId(), principal.getId());
+        assertEquals(user.getName(), principal.getName());
+    }
+
+    @Test
+    public void verifyToken_otherSecret_returnsNull() {
+        User user = new User();
+        user.setId("a1b2");
+        user.setName("Test User");
+        String token = new JwtTokenService("b".repeat(JwtTokenService.MIN_SECRET_LENGTH), 60_000, 60_000)
+                .generateToken(user);
+
+        assertNull(jwtTokenService.verifyToken(token));
+    }
+
+    @Test
+    public void verifyToken_expiredOrMalformed_returnsNull() {
+        User user = new User();
+        user.setId("a1b2");
+        user.setName("Test User");
+        String token = new JwtTokenService(SECRET, -60_000, 60_000).generateToken(user);
+
+        assertNull(jwtTokenService.verifyToken(token));
+        assertNull(jwtTokenService.verifyToken("a1b2"));
+    }
+
+    @Test
+    public void constructor_missingOrShortSecret_fails() {
+        assertThrows(IllegalStateException.class, () -> new JwtTokenService("", 60_000, 60_000));
+        assertThrows(IllegalStateException.class, () -> new JwtTokenService("secret", 60_000, 60_000));
+    }
+
+    @Test
+    public void verifyStreamToken_generatedStreamToken_returnsUser() {
+        User user = new User();
+        user.setId("a1b2");
+        user.setName("Test User");
+        String streamToken = jwtTokenService.generateStreamToken(user);
+
+        DecodedJWT jwt = jwtTokenService.verifyStreamToken(streamToken);
+
+        assertNotNull(jwt);
+        assertEquals(user.getId(), jwtTokenService.getUser(jwt).getId());
+        // ! only opens streams
+        assertNull(jwtTokenService.verifyToken(streamToken));
+    }
+
+    @Test
+    public void verifyStreamToken_regularOrExpired_returnsNull() {
+        User user = new User();
+        user.setId("a1b2");
+        user.setName("Test User");
+        String expiredStreamToken = new JwtTokenService(SECRET, 60_000, -60_000).generateStreamToken(user);
+
+        assertNull(jwtTokenService.verifyStreamToken(jwtTokenService.generateToken(user)));
+        assertNull(jwtTokenService.verifyStreamToken(expiredStreamToken));
+    }
+}
@@ -0,0 +1,110 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
+import ch.uzh.ifi.hase.soprafs23.event.LobbyChangedEvent;
+import ch.uzh.ifi.hase.soprafs23.repository.LobbyRepository;
+import ch.uzh.ifi.hase.soprafs23.repository.LobbyRepository.LobbySummary;
+import ch.uzh.ifi.hase.soprafs23.rest.dto.lobby.LobbyPageGetDTO;
+
+public class LobbyBrowserTest {
+    @Mock
+    private LobbyRepository lobbyRepository;
+
+    private LobbyBrowser lobbyBrowser;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        lobbyBrowser = new LobbyBrowser(lobbyRepository, 60_000);
+    }
+
+    @Test
+    public void getPublicLobbies_morePages_returnsCursor() {
+        when(lobbyRepository.findPublicLobbies(0, PageRequest.of(0, 3))).thenReturn(summaries(1, 2, 3));
+
+        LobbyPageGetDTO page = lobbyBrowser.getPublicLobbies(null, 2);
+
+        assertEquals(2, page.getLobbies().size());
+        assertEquals("code-1", page.getLobbies().get(0).getCode());
+        assertEquals(3, page.getLobbies().get(0).getPlayerCount());
+        assertEquals(10, page.getLobbies().get(0).getMaxPlayers());
+        assertEquals(2L, page.getNextCursor());
+    }
+
+    @Test
+    public void getPublicLobbies_lastPage_noCursor() {
+        when(lobbyRepository.findPublicLobbies(2, PageRequest.of(0, 3))).thenReturn(summaries(3));
+
+        LobbyPageGetDTO page = lobbyBrowser.getPublicLobbies(2L, 2);
+
+        assertEquals(1, page.getLobbies().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void getPublicLobbies_cached_queriedOnce() {
+        when(lobbyRepository.findPublicLobbies(anyLong(), any())).thenReturn(summaries(1));
+
+        lobbyBrowser.getPublicLobbies(null, 20);
+        lobbyBrowser.getPublicLobbies(null, 20);
+
+        verify(lobbyRepository, times(1)).findPublicLobbies(eq(0L), any());
+    }
+
+    @Test
+    public void getPublicLobbies_lobbyChanged_queriedAgain() {
+        when(lobbyRepository.findPublicLobbies(anyLong(), any())).thenReturn(summaries(1));
+
+        lobbyBrowser.getPublicLobbies(null, 20);
+        lobbyBrowser.onLobbyChanged(new LobbyChangedEvent(LobbyChangedEvent.Type.CREATED, new Lobby(), null));
+        lobbyBrowser.getPublicLobbies(null, 20);
+
+        verify(lobbyRepository, times(2)).findPublicLobbies(eq(0L), any());
+    }
+
+    private static List<LobbySummary> summaries(long... ids) {
+        List<LobbySummary> summaries = new ArrayList<LobbySummary>();
+        for (long id : ids) {
+            summaries.add(new LobbySummary() {
+                public Long getId() {
+                    return id;
+                }
+
+                public String getCode() {
+                    return "code-" + id;
+                }
+
+                public String getName() {
+                    return "lobby " + id;
+                }
+
+                public Integer getPlayerCount() {
+                    return 3;
+                }
+
+                public Integer getMaxPlayers() {
+                    return 10;
+                }
+            });
+        }
+        return summaries;
+    }
+}
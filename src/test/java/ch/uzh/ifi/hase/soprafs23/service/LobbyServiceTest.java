@@ -7,24 +7,40 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import ch.uzh.ifi.hase.soprafs23.entity.User;
 import ch.uzh.ifi.hase.soprafs23.entity.Lobby;
 import ch.uzh.ifi.hase.soprafs23.entity.LobbySetting;
+import ch.uzh.ifi.hase.soprafs23.event.LobbyChangedEvent;
 import ch.uzh.ifi.hase.soprafs23.repository.LobbyRepository;
+import ch.uzh.ifi.hase.soprafs23.stream.LobbyStream;
+import ch.uzh.ifi.hase.soprafs23.utility.LobbyCodeAllocator;
 
 public class LobbyServiceTest {
     @Mock
     private LobbyRepository lobbyRepository;
 
+    @Mock
+    private LobbyStream lobbyStream;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private LobbyService lobbyService;
 
@@ -71,6 +87,32 @@ public class LobbyServiceTest {
     }
 
 
+    @Test
+    public void createLobby_rolledBack_codeFreed() {
+        Mockito.when(lobbyRepository.save(Mockito.any())).thenThrow(new DataIntegrityViolationException("owner"));
+        LobbyCodeAllocator codeAllocator = (LobbyCodeAllocator) ReflectionTestUtils.getField(lobbyService,
+                "codeAllocator");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(DataIntegrityViolationException.class,
+                    () -> lobbyService.createLobby(lobby, lobby.getOwner()));
+            String code = lobby.getCode();
+            assertTrue(codeAllocator.isUsed(code));
+
+            // when
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager
+                    .getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+
+            // then
+            assertFalse(codeAllocator.isUsed(code));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     public void updateLobby_validInputs_success() {
         Lobby updatedLobby = new Lobby();
@@ -101,6 +143,31 @@ public class LobbyServiceTest {
         assertEquals(lobby, result);
     }
 
+    @Test
+    public void getLobbyByCode_createdLobby_loadsById() {
+        lobby.setId(1L);
+        Lobby createdLobby = lobbyService.createLobby(lobby, lobby.getOwner());
+        Mockito.when(lobbyRepository.findById(1L)).thenReturn(Optional.of(createdLobby));
+
+        Lobby result = lobbyService.getLobbyByCode(createdLobby.getCode());
+
+        Mockito.verify(lobbyRepository, Mockito.times(1)).findById(1L);
+        Mockito.verify(lobbyRepository, Mockito.never()).findByCode(Mockito.anyString());
+        assertEquals(createdLobby, result);
+    }
+
+    @Test
+    public void getLobbyByCode_deletedLobby_notFound() {
+        lobby.setId(1L);
+        Lobby createdLobby = lobbyService.createLobby(lobby, lobby.getOwner());
+        Mockito.when(lobbyRepository.findById(1L)).thenReturn(Optional.of(createdLobby));
+        lobbyService.deleteLobby(createdLobby.getCode());
+
+        Mockito.when(lobbyRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResponseStatusException.class, () -> lobbyService.getLobbyByCode(createdLobby.getCode()));
+    }
+
 
 
     @Test
@@ -123,6 +190,26 @@ public class LobbyServiceTest {
         assertTrue(result.getPlayers().contains(joiningUser));
 }
 
+    @Test
+    public void joinLobby_validInputs_publishesJoined() {
+        User joiningUser = new User();
+        joiningUser.setName("joiningUser");
+        lobby.setPlayers(new ArrayList<>());
+        lobby.setKickedPlayers(new ArrayList<>());
+
+        LobbySetting setting = new LobbySetting();
+        setting.setMaxPlayers(2);
+        lobby.setLobbySetting(setting);
+        Mockito.when(lobbyRepository.findByCode(Mockito.anyString())).thenReturn(lobby);
+
+        lobbyService.joinLobby(lobby.getCode(), joiningUser);
+
+        ArgumentCaptor<LobbyChangedEvent> event = ArgumentCaptor.forClass(LobbyChangedEvent.class);
+        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(event.capture());
+        assertEquals(LobbyChangedEvent.Type.JOINED, event.getValue().getType());
+        assertEquals(joiningUser, event.getValue().getPlayer());
+    }
+
 
 
 
@@ -202,5 +289,27 @@ public class LobbyServiceTest {
 
         assertThrows(ResponseStatusException.class, () -> lobbyService.kickPlayer(lobby.getCode(), notOwner, userToKick));
     }
-    
+
+    @Test
+    public void joinLobby_kickedUnderOtherName_failure() {
+        User kickedUser = new User();
+        kickedUser.setId("kicked");
+        kickedUser.setName("old name");
+        LobbySetting setting = new LobbySetting();
+        setting.setMaxPlayers(4);
+        lobby.setLobbySetting(setting);
+        lobby.setPlayers(new ArrayList<>());
+        lobby.setKickedPlayers(new ArrayList<>());
+        lobby.addKickedPlayer(kickedUser);
+
+        User renamedUser = new User();
+        renamedUser.setId("kicked");
+        renamedUser.setName("new name");
+
+        Mockito.when(lobbyRepository.findByCode(Mockito.anyString())).thenReturn(lobby);
+
+        assertThrows(ResponseStatusException.class, () -> lobbyService.joinLobby(lobby.getCode(), renamedUser));
+        assertFalse(lobby.hasPlayer("kicked"));
+    }
+
 }
@@ -0,0 +1,121 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Game;
+import ch.uzh.ifi.hase.soprafs23.entity.Meme;
+import ch.uzh.ifi.hase.soprafs23.entity.Rating;
+import ch.uzh.ifi.hase.soprafs23.entity.Round;
+import ch.uzh.ifi.hase.soprafs23.entity.User;
+import ch.uzh.ifi.hase.soprafs23.service.Scoreboard.MemeScore;
+import ch.uzh.ifi.hase.soprafs23.service.Scoreboard.PlayerScore;
+
+public class ScoreboardTest {
+
+    private final User alice = user("1", "alice");
+
+    private final User bob = user("2", "bob");
+
+    private final User carol = user("3", "carol");
+
+    @Test
+    public void addRating_roundLeaderboard_sortedBySum() {
+        Scoreboard scoreboard = Scoreboard.of(game());
+        Round round = round(1);
+        Meme aliceMeme = meme("a", alice);
+        Meme bobMeme = meme("b", bob);
+        scoreboard.addMeme(round, aliceMeme);
+        scoreboard.addMeme(round, bobMeme);
+
+        scoreboard.addRating(rating(bobMeme, 2));
+        scoreboard.addRating(rating(bobMeme, 3));
+        scoreboard.addRating(rating(aliceMeme, 4));
+
+        List<MemeScore> leaderboard = scoreboard.getRoundLeaderboard(1);
+        assertEquals(2, leaderboard.size());
+        assertEquals("b", leaderboard.get(0).getMeme().getId());
+        assertEquals(5, leaderboard.get(0).getSum());
+        assertEquals(2, leaderboard.get(0).getCount());
+        assertEquals(4, leaderboard.get(1).getSum());
+    }
+
+    @Test
+    public void addRating_gameLeaderboard_sumsRounds() {
+        Scoreboard scoreboard = Scoreboard.of(game());
+        Meme first = meme("a1", alice);
+        Meme second = meme("a2", alice);
+        Meme bobMeme = meme("b1", bob);
+        scoreboard.addMeme(round(1), first);
+        scoreboard.addMeme(round(1), bobMeme);
+        scoreboard.addMeme(round(2), second);
+
+        scoreboard.addRating(rating(first, 3));
+        scoreboard.addRating(rating(second, 3));
+        scoreboard.addRating(rating(bobMeme, 5));
+
+        List<PlayerScore> leaderboard = scoreboard.getGameLeaderboard();
+        assertEquals(3, leaderboard.size());
+        assertEquals(alice, leaderboard.get(0).getUser());
+        assertEquals(6, leaderboard.get(0).getScore());
+        assertEquals(5, leaderboard.get(1).getScore());
+        // * players without memes are listed as well
+        assertEquals(carol, leaderboard.get(2).getUser());
+        assertEquals(0, leaderboard.get(2).getScore());
+    }
+
+    @Test
+    public void of_loadedGame_replaysRatings() {
+        Game game = game();
+        Round round = round(1);
+        Meme bobMeme = meme("b", bob);
+        round.addMeme(bobMeme);
+        round.addRating(rating(bobMeme, 4));
+        game.addRound(round);
+
+        Scoreboard scoreboard = Scoreboard.of(game);
+
+        assertEquals(4, scoreboard.getRoundLeaderboard(1).get(0).getSum());
+        assertEquals(bob, scoreboard.getGameLeaderboard().get(0).getUser());
+    }
+
+    private Game game() {
+        Game game = new Game();
+        game.addPlayer(alice);
+        game.addPlayer(bob);
+        game.addPlayer(carol);
+        game.setRounds(new ArrayList<>());
+        return game;
+    }
+
+    private static Round round(int roundNumber) {
+        Round round = new Round();
+        round.setRoundNumber(roundNumber);
+        return round;
+    }
+
+    private static Meme meme(String id, User user) {
+        Meme meme = new Meme();
+        meme.setId(id);
+        meme.setUser(user);
+        return meme;
+    }
+
+    private static Rating rating(Meme meme, int value) {
+        Rating rating = new Rating();
+        rating.setMeme(meme);
+        rating.setRating(value);
+        return rating;
+    }
+
+    private static User user(String id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        return user;
+    }
+}
@@ -0,0 +1,168 @@
+package ch.uzh.ifi.hase.soprafs23.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.web.server.ResponseStatusException;
+
+import ch.uzh.ifi.hase.soprafs23.entity.Template;
+import ch.uzh.ifi.hase.soprafs23.repository.TemplateRepository;
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.IMemeApi;
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient.ApiResponse;
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient.Data;
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient.Meme;
+
+public class TemplateCatalogTest {
+    @Mock
+    private IMemeApi memeApi;
+
+    @Mock
+    private IMemeApi snapshot;
+
+    @Mock
+    private TemplateRepository templateRepository;
+
+    private TemplateCatalog templateCatalog;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(templateRepository.findAllById(anyIterable())).thenReturn(new ArrayList<>());
+
+        // not started -> no background refresh
+        templateCatalog = new TemplateCatalog(memeApi, snapshot, templateRepository, 60_000);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        templateCatalog.shutdown();
+    }
+
+    @Test
+    public void refresh_validResponse_storesTemplates() {
+        when(memeApi.getTemplates()).thenReturn(response("1", "2"));
+
+        assertTrue(templateCatalog.refresh());
+
+        List<Template> templates = templateCatalog.getTemplates();
+        assertEquals(2, templates.size());
+        assertEquals("1", templates.get(0).getId());
+        assertEquals("https://i.imgflip.com/1.jpg", templates.get(0).getImageUrl());
+        verify(templateRepository).saveAll(any());
+    }
+
+    @Test
+    public void refresh_unchangedTemplates_notSaved() {
+        when(memeApi.getTemplates()).thenReturn(response("1"));
+        Template stored = new Template();
+        stored.setId("1");
+        stored.setImageUrl("https://i.imgflip.com/1.jpg");
+        when(templateRepository.findAllById(anyIterable())).thenReturn(List.of(stored));
+
+        assertTrue(templateCatalog.refresh());
+
+        verify(templateRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void refresh_storedTemplateWithoutImage_updated() {
+        when(memeApi.getTemplates()).thenReturn(response("1"));
+        Template stored = new Template();
+        stored.setId("1");
+        when(templateRepository.findAllById(anyIterable())).thenReturn(List.of(stored));
+
+        assertTrue(templateCatalog.refresh());
+
+        verify(templateRepository).saveAll(any());
+        assertEquals("https://i.imgflip.com/1.jpg", templateCatalog.getTemplates().get(0).getImageUrl());
+    }
+
+    @Test
+    public void refresh_apiFails_keepsLastTemplates() {
+        when(memeApi.getTemplates()).thenReturn(response("1", "2"));
+        templateCatalog.refresh();
+
+        when(memeApi.getTemplates()).thenReturn(null);
+        assertFalse(templateCatalog.refresh());
+
+        when(memeApi.getTemplates()).thenThrow(new RuntimeException("timeout"));
+        assertFalse(templateCatalog.refresh());
+
+        assertEquals(2, templateCatalog.getTemplates().size());
+    }
+
+    @Test
+    public void getTemplates_nothingLoaded_snapshotWithoutWaitingForApi() throws InterruptedException {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(snapshot.getTemplates()).thenReturn(response("snapshot"));
+        when(memeApi.getTemplates()).thenAnswer(invocation -> {
+            fetching.countDown();
+            release.await();
+            return response("1", "2");
+        });
+
+        List<Template> templates = templateCatalog.getTemplates();
+
+        assertEquals(1, templates.size());
+        assertEquals("snapshot", templates.get(0).getId());
+        // * the meme api is asked in the background
+        assertTrue(fetching.await(5, TimeUnit.SECONDS));
+        assertEquals(1, templateCatalog.getTemplates().size());
+
+        release.countDown();
+        long end = System.currentTimeMillis() + 5_000;
+        while (templateCatalog.getTemplates().size() != 2 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, templateCatalog.getTemplates().size());
+    }
+
+    @Test
+    public void getTemplates_loaded_snapshotNotRead() {
+        when(memeApi.getTemplates()).thenReturn(response("1", "2"));
+        templateCatalog.refresh();
+
+        assertEquals(2, templateCatalog.getTemplates().size());
+        verify(snapshot, never()).getTemplates();
+    }
+
+    @Test
+    public void getTemplates_nothingLoaded_throwsException() {
+        when(memeApi.getTemplates()).thenReturn(null);
+        when(snapshot.getTemplates()).thenReturn(null);
+
+        assertThrows(ResponseStatusException.class, () -> templateCatalog.getTemplates());
+    }
+
+    private static ApiResponse response(String... ids) {
+        ApiResponse apiResponse = new ApiResponse();
+        apiResponse.success = true;
+        apiResponse.data = new Data();
+        apiResponse.data.memes = new ArrayList<>();
+        for (String id : ids) {
+            Meme meme = new Meme();
+            meme.id = id;
+            meme.url = "https://i.imgflip.com/" + id + ".jpg";
+            apiResponse.data.memes.add(meme);
+        }
+        return apiResponse;
+    }
+}
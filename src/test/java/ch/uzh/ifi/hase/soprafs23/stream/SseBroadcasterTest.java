@@ -0,0 +1,134 @@
+package ch.uzh.ifi.hase.soprafs23.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class SseBroadcasterTest {
+
+    private static final int MAX_PENDING = 4;
+
+    private final SseBroadcaster broadcaster = new SseBroadcaster("test-stream", new ObjectMapper(), 60_000, 2,
+            MAX_PENDING);
+
+    // * releases the slow clients, otherwise their threads block until the end
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void shutdown() {
+        release.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    public void broadcast_slowSubscriber_othersReceiveRightAway() throws InterruptedException {
+        RecordingEmitter slow = new RecordingEmitter(release);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        RecordingEmitter otherChannel = new RecordingEmitter(null);
+        broadcaster.subscribe("game-1", slow, "state", () -> "initial");
+        broadcaster.subscribe("game-1", fast, "state", () -> "initial");
+        broadcaster.subscribe("game-2", otherChannel, "state", () -> "initial");
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+
+        broadcaster.broadcast("game-1", "meme", "change");
+        broadcaster.broadcast("game-2", "meme", "change");
+
+        assertTrue(fast.await(2));
+        assertTrue(otherChannel.await(2));
+        assertEquals(0, slow.sent.size());
+    }
+
+    @Test
+    public void broadcast_subscriberTooFarBehind_dropped() throws InterruptedException {
+        RecordingEmitter slow = new RecordingEmitter(release);
+        broadcaster.subscribe("game-1", slow, "state", () -> "initial");
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i <= MAX_PENDING; i++) {
+            broadcaster.broadcast("game-1", "meme", "change " + i);
+        }
+
+        assertTrue(slow.completed);
+        assertFalse(broadcaster.hasSubscribers("game-1"));
+    }
+
+    @Test
+    public void close_pendingEventsSentInOrderFirst() throws InterruptedException {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        broadcaster.subscribe("game-1", emitter, "state", () -> "initial");
+
+        broadcaster.broadcast("game-1", "meme", "first");
+        broadcaster.broadcast("game-1", "rating", "second");
+        broadcaster.close("game-1");
+
+        assertTrue(emitter.closed.await(5, TimeUnit.SECONDS));
+        assertEquals(3, emitter.sent.size());
+        assertTrue(emitter.sent.get(2).contains("second"));
+        assertFalse(broadcaster.hasSubscribers("game-1"));
+    }
+
+    /**
+     * Records the sent events, blocks every send until released if it is a
+     * slow client
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch release;
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+
+        private volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(data -> event.append(data.getData()));
+            sent.add(event.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            closed.countDown();
+        }
+
+        /**
+         * Waits until the given number of events were sent
+         */
+        boolean await(int events) throws InterruptedException {
+            long end = System.currentTimeMillis() + 5_000;
+            while (sent.size() < events && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+            }
+            return sent.size() >= events;
+        }
+    }
+}
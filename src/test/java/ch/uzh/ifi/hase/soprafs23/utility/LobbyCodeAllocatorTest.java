@@ -0,0 +1,84 @@
+package ch.uzh.ifi.hase.soprafs23.utility;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LobbyCodeAllocatorTest {
+
+    private LobbyCodeAllocator allocator;
+
+    @BeforeEach
+    public void setup() {
+        // 2 x 2 = 4 codes per generation, next generation once 2 are used
+        allocator = new LobbyCodeAllocator(List.of("big-hearted", "calm", "calm"), List.of("cat", "dog"), 0.5,
+                new Random(42));
+    }
+
+    @Test
+    public void allocate_manyCodes_neverReturnsUsedCode() {
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(codes.add(allocator.allocate()));
+        }
+    }
+
+    @Test
+    public void allocate_thresholdReached_addsSuffix() {
+        String first = allocator.allocate();
+        String second = allocator.allocate();
+        String third = allocator.allocate();
+
+        assertFalse(first.matches(".*-\\d+"));
+        assertFalse(second.matches(".*-\\d+"));
+        assertTrue(third.endsWith("-2"));
+        assertTrue(allocator.isUsed(third));
+    }
+
+    @Test
+    public void free_code_isReusedBeforeSuffix() {
+        String first = allocator.allocate();
+        allocator.allocate();
+        String third = allocator.allocate();
+
+        allocator.free(first);
+
+        assertFalse(allocator.isUsed(first));
+        assertTrue(allocator.isUsed(third));
+        assertFalse(allocator.allocate().matches(".*-\\d+"));
+    }
+
+    @Test
+    public void reserve_existingCodes_notAllocated() {
+        assertTrue(allocator.reserve("big-hearted-cat"));
+        assertTrue(allocator.reserve("calm-dog-3"));
+        assertFalse(allocator.reserve("big-hearted-cat"));
+        assertFalse(allocator.reserve("unknown-code"));
+
+        assertTrue(allocator.isUsed("big-hearted-cat"));
+        assertTrue(allocator.isUsed("calm-dog-3"));
+        assertFalse(allocator.isUsed("calm-dog"));
+    }
+
+    @Test
+    public void allocate_wordsFromNameGenerator_parsesEveryCode() {
+        NameGenerator nameGenerator = new NameGenerator();
+        LobbyCodeAllocator defaultAllocator = new LobbyCodeAllocator(nameGenerator.getAdjectives(),
+                nameGenerator.getNouns(), 0.5, new Random());
+
+        for (int i = 0; i < 1000; i++) {
+            String code = defaultAllocator.allocate();
+            assertTrue(defaultAllocator.isUsed(code));
+            defaultAllocator.free(code);
+            assertFalse(defaultAllocator.isUsed(code));
+        }
+        assertTrue(defaultAllocator.reserve("well-to-do-history"));
+    }
+}
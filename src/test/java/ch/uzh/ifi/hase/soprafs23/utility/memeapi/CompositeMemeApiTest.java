@@ -0,0 +1,104 @@
+package ch.uzh.ifi.hase.soprafs23.utility.memeapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient.ApiResponse;
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient.Data;
+import ch.uzh.ifi.hase.soprafs23.utility.memeapi.ImgflipClient.Meme;
+
+public class CompositeMemeApiTest {
+
+    private CompositeMemeApi compositeMemeApi;
+
+    @AfterEach
+    public void tearDown() {
+        if (compositeMemeApi != null) {
+            compositeMemeApi.shutdown();
+        }
+    }
+
+    @Test
+    public void getTemplates_firstProviderAnswers_usesFirst() {
+        ApiResponse first = response("1");
+        compositeMemeApi = new CompositeMemeApi(List.of(() -> first, () -> response("2")), 1_000);
+
+        assertSame(first, compositeMemeApi.getTemplates());
+    }
+
+    @Test
+    public void getTemplates_firstProviderFails_fallsBack() {
+        ApiResponse fallback = response("2");
+        IMemeApi failing = () -> {
+            throw new RuntimeException("connection refused");
+        };
+        compositeMemeApi = new CompositeMemeApi(List.of(failing, () -> null, () -> fallback), 1_000);
+
+        assertSame(fallback, compositeMemeApi.getTemplates());
+    }
+
+    @Test
+    public void getTemplates_firstProviderTooSlow_fallsBack() {
+        ApiResponse fallback = response("2");
+        IMemeApi slow = () -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return response("1");
+        };
+        compositeMemeApi = new CompositeMemeApi(List.of(slow, () -> fallback), 100);
+
+        assertSame(fallback, compositeMemeApi.getTemplates());
+    }
+
+    @Test
+    public void getTemplates_noProviderAnswers_returnsNull() {
+        compositeMemeApi = new CompositeMemeApi(List.of(() -> null), 1_000);
+
+        assertNull(compositeMemeApi.getTemplates());
+    }
+
+    @Test
+    public void snapshot_bundledSnapshot_loadsTemplates() {
+        SnapshotMemeApi snapshot = new SnapshotMemeApi(new ClassPathResource("memeapi/templates-v1.json"));
+
+        ApiResponse apiResponse = snapshot.getTemplates();
+
+        assertNotNull(apiResponse);
+        assertEquals(30, apiResponse.data.memes.size());
+        assertNotNull(apiResponse.data.memes.get(0).id);
+        assertNotNull(apiResponse.data.memes.get(0).url);
+    }
+
+    @Test
+    public void snapshot_unsupportedVersion_returnsNull() {
+        SnapshotMemeApi snapshot = new SnapshotMemeApi(
+                new ByteArrayResource("{\"version\": 99, \"data\": {\"memes\": []}}".getBytes()));
+
+        assertNull(snapshot.getTemplates());
+    }
+
+    private static ApiResponse response(String id) {
+        Meme meme = new Meme();
+        meme.id = id;
+        meme.url = "https://i.imgflip.com/" + id + ".jpg";
+
+        ApiResponse apiResponse = new ApiResponse();
+        apiResponse.success = true;
+        apiResponse.data = new Data();
+        apiResponse.data.memes = new ArrayList<>(List.of(meme));
+        return apiResponse;
+    }
+}